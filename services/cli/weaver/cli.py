@@ -304,7 +304,7 @@ def stop(ctx, deployment_id, force):
             
             progress.update(task, completed=True)
         
-        console.print(f"[green]✓[/green] Deployment stopped")
+        console.print(f"[green]✓[/green] Deployment stopping (status: {result.get('status', 'TERMINATING')})")
         
     except WeaverError as e:
         console.print(f"[red]Error:[/red] {e}")
@@ -14,6 +14,9 @@ from weaver.exceptions import WeaverError, AuthenticationError, NotFoundError
 class NexusWeaverClient:
     """Client for the Nexus Weaver Control Plane API"""
     
+    # Largest page the control plane serves; fewer round trips when following cursors
+    PAGE_SIZE = 500
+    
     def __init__(self, config: Config, auth: Optional[SupabaseAuth] = None):
         self.config = config
         self.auth = auth or SupabaseAuth()
@@ -110,30 +113,38 @@ class NexusWeaverClient:
         
         return self._handle_response(response)
     
+    def _get_all_pages(self, path: str, params: Dict[str, Any]) -> List[Dict[str, Any]]:
+        """GET a paged listing and follow X-Next-Cursor until the last page"""
+        params = dict(params, limit=self.PAGE_SIZE)
+        items: List[Dict[str, Any]] = []
+        while True:
+            response = self.session.get(self._url(path), params=params)
+            items.extend(self._handle_response(response) or [])
+            cursor = response.headers.get('X-Next-Cursor')
+            if not cursor:
+                return items
+            params['cursor'] = cursor
+
+    def find_application(self, name: str) -> Optional[Dict[str, Any]]:
+        """Find an application by exact name (case-insensitive)"""
+        for app in self._get_all_pages("/api/v1/applications", {'name': name}):
+            if app.get('name', '').lower() == name.lower():
+                return app
+        return None
+
     def list_deployments(self, app_name: Optional[str] = None, 
                         status: Optional[str] = None) -> List[Dict[str, Any]]:
-        """List all deployments with optional filters"""
+        """List all deployments with optional filters, across every page"""
         params = {}
         if app_name:
-            # Note: The API uses applicationId, but we'll need to handle this
-            # For now, we'll just get all and filter client-side
-            pass
+            app = self.find_application(app_name)
+            if app is None:
+                return []
+            params['applicationId'] = app['id']
         if status:
             params['status'] = status
         
-        response = self.session.get(
-            self._url("/api/v1/deployments"),
-            params=params
-        )
-        
-        deployments = self._handle_response(response)
-        
-        # Client-side filtering by app name if needed
-        if app_name and isinstance(deployments, list):
-            deployments = [d for d in deployments 
-                          if d.get('applicationName', '').lower() == app_name.lower()]
-        
-        return deployments
+        return self._get_all_pages("/api/v1/deployments", params)
     
     def get_deployment(self, deployment_id: str) -> Dict[str, Any]:
         """Get a specific deployment"""
@@ -165,7 +176,8 @@ class NexusWeaverClient:
             self._url(f"/api/v1/deployments/{deployment_id}")
         )
         
-        if response.status_code != 204:
+        # 202: accepted, processes are stopped and the deployment removed in the background
+        if response.status_code not in (202, 204):
             self._handle_response(response)
     
     def _parse_memory(self, memory_str: str) -> int:
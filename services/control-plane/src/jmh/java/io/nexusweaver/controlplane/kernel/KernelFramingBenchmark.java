@@ -0,0 +1,95 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.service.impl.KernelServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kernel wire framing against an in-process {@link LoopbackKernel}.
+ *
+ * {@code exchange} measures one request/response frame pair on an open connection, by payload
+ * size. {@code stopProcess} measures the whole {@code KernelServiceImpl.sendMessage} path:
+ * leasing a pooled connection, framing the request, reading the reply and handing the
+ * connection back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KernelFramingBenchmark {
+
+    private static final int ECHO = 0;
+    private static final String NODE = "localhost";
+
+    private LoopbackKernel kernel;
+    private KernelConnectionPool pool;
+    private KernelServiceImpl kernelService;
+
+    @State(Scope.Thread)
+    public static class Connection {
+
+        @Param({"16", "1024", "65536"})
+        int payloadBytes;
+
+        KernelConnection connection;
+        String payload;
+
+        @Setup(Level.Trial)
+        public void open(KernelFramingBenchmark benchmark) throws IOException {
+            connection = benchmark.pool.borrow(NODE);
+            payload = "x".repeat(payloadBytes);
+        }
+
+        @TearDown(Level.Trial)
+        public void close(KernelFramingBenchmark benchmark) {
+            benchmark.pool.release(connection);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        kernel = LoopbackKernel.start();
+        NexusWeaverProperties properties = new NexusWeaverProperties();
+        properties.getKernel().setDefaultPort(kernel.port());
+        pool = new KernelConnectionPool(properties);
+        kernelService = new KernelServiceImpl(pool, properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        pool.close();
+        kernel.close();
+    }
+
+    @Benchmark
+    public String exchange(Connection connection) throws IOException {
+        return connection.connection.exchange(ECHO, connection.payload);
+    }
+
+    @Benchmark
+    public void stopProcess() {
+        kernelService.stopProcess(NODE, "bench-1");
+    }
+}
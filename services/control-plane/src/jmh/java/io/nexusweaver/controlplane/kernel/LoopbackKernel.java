@@ -0,0 +1,102 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * In-process kernel speaking the framed TCP protocol, answering every frame immediately.
+ * Stop and health check frames get the kernel's usual replies; any other frame is echoed back.
+ */
+final class LoopbackKernel implements Closeable {
+
+    private static final byte[] STOPPED = "Process stopped successfully".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEALTHY = "OK: Kernel is healthy".getBytes(StandardCharsets.UTF_8);
+
+    private final ServerSocket server;
+
+    private LoopbackKernel(ServerSocket server) {
+        this.server = server;
+    }
+
+    static LoopbackKernel start() throws IOException {
+        LoopbackKernel kernel = new LoopbackKernel(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        Thread acceptor = new Thread(kernel::accept, "loopback-kernel");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return kernel;
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> serve(socket), "loopback-kernel-conn");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        ByteBuffer header = ByteBuffer.allocate(KernelProtocol.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] body = new byte[1024];
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                header.clear();
+                in.readFully(header.array());
+                int type = header.getInt();
+                int length = header.getInt();
+                if (length > body.length) {
+                    body = new byte[Integer.highestOneBit(length) << 1];
+                }
+                in.readFully(body, 0, length);
+
+                byte[] reply = body;
+                int replyLength = length;
+                if (type == KernelProtocol.MSG_STOP_PROCESS) {
+                    reply = STOPPED;
+                    replyLength = STOPPED.length;
+                } else if (type == KernelProtocol.MSG_HEALTH_CHECK) {
+                    reply = HEALTHY;
+                    replyLength = HEALTHY.length;
+                }
+                header.clear();
+                header.putInt(type).putInt(replyLength);
+                out.write(header.array());
+                out.write(reply, 0, replyLength);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.mapper;
+
+import io.nexusweaver.controlplane.api.dto.DeploymentResponse;
+import io.nexusweaver.controlplane.domain.entity.Application;
+import io.nexusweaver.controlplane.domain.entity.Deployment;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.Service;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct conversion of a deployment and all of its services into a {@link DeploymentResponse}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeploymentMapperBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int services;
+
+    private final DeploymentMapper mapper = new DeploymentMapperImpl();
+    private Deployment deployment;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        Application application = Application.builder()
+                .id(UUID.randomUUID())
+                .name("benchmark")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        deployment = Deployment.builder()
+                .id(UUID.randomUUID())
+                .application(application)
+                .version("1.0.0")
+                .status(DeploymentStatus.DEPLOYED)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        for (int i = 0; i < services; i++) {
+            deployment.addService(Service.builder()
+                    .id(UUID.randomUUID())
+                    .name("service-" + i)
+                    .processId(Integer.toHexString(i))
+                    .nodeId("node-" + (i % 8))
+                    .status(ServiceStatus.RUNNING)
+                    .language(i % 2 == 0 ? "python" : "java")
+                    .port(8000 + i)
+                    .memoryLimit(536870912L)
+                    .cpuShares(1024)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public DeploymentResponse toResponse() {
+        return mapper.toResponse(deployment);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.api.dto.ApplicationDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of an {@link ApplicationStatsIndex} entry into the {@link ApplicationDto} returned
+ * for every application of a listing, by number of distinct languages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApplicationDtoBenchmark {
+
+    @Param({"1", "5", "20"})
+    int languages;
+
+    private ApplicationStatsIndex.Entry entry;
+
+    @Setup
+    public void setup() {
+        Map<String, Integer> languageCounts = new TreeMap<>();
+        for (int i = 0; i < languages; i++) {
+            languageCounts.put("language-" + i, i + 1);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        entry = new ApplicationStatsIndex.Entry(UUID.randomUUID(), "benchmark", "Benchmark application",
+                now, now, 42, 3, now, languageCounts, 0);
+    }
+
+    @Benchmark
+    public ApplicationDto convertToDto() {
+        return ApplicationServiceImpl.convertToDto(entry);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.nexusweaver.controlplane.api.dto.DeploymentRequest;
+import io.nexusweaver.controlplane.config.DeploymentExecutorConfig;
+import io.nexusweaver.controlplane.kernel.FakeKernel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end deployment throughput of the control plane against a {@link FakeKernel}.
+ *
+ * Every client creates a deployment, waits for its rollout to finish, stops it, starts it again,
+ * waits for the second rollout and deletes it. The run reports rollouts per second, the latency
+ * of every REST call and of whole rollouts, and how saturated the Hikari pool and the deployment
+ * thread pools were. Postgres runs in a container unless {@code loadtest.jdbc-url} points at one.
+ *
+ * Run with: mvn -P loadtest verify
+ * Tune with -Dloadtest.deployments, -Dloadtest.concurrency, -Dloadtest.services,
+ * -Dloadtest.kernel.latency-ms, -Dloadtest.kernel.jitter-ms, -Dloadtest.kernel.failure-rate,
+ * -Dloadtest.kernel.disconnect-rate and -Dloadtest.kernel.max-processes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class DeploymentThroughputLoadTest {
+
+    private static final int DEPLOYMENTS = Integer.getInteger("loadtest.deployments", 500);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final int SERVICES = Integer.getInteger("loadtest.services", 4);
+    private static final int APPLICATIONS = Integer.getInteger("loadtest.applications", 20);
+    private static final Duration ROLLOUT_TIMEOUT = Duration.ofSeconds(Long.getLong("loadtest.rollout-timeout-s", 120));
+    private static final long POLL_INTERVAL_MS = 25;
+    private static final Set<String> SETTLED = Set.of("DEPLOYED", "FAILED", "TERMINATED");
+
+    private static final PostgreSQLContainer<?> POSTGRES;
+    private static final FakeKernel KERNEL;
+
+    static {
+        if (System.getProperty("loadtest.jdbc-url") == null) {
+            POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine")
+                    .withDatabaseName("nexusweaver")
+                    .withUsername("weaver")
+                    .withPassword("weaver");
+            POSTGRES.start();
+        } else {
+            POSTGRES = null;
+        }
+        try {
+            KERNEL = FakeKernel.start(FakeKernel.Behaviour.builder()
+                    .latency(Duration.ofMillis(Long.getLong("loadtest.kernel.latency-ms", 20)))
+                    .jitter(Duration.ofMillis(Long.getLong("loadtest.kernel.jitter-ms", 10)))
+                    .failureRate(Double.parseDouble(System.getProperty("loadtest.kernel.failure-rate", "0.01")))
+                    .disconnectRate(Double.parseDouble(System.getProperty("loadtest.kernel.disconnect-rate", "0.001")))
+                    .maxProcesses(Integer.getInteger("loadtest.kernel.max-processes", 0))
+                    .build());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start fake kernel", e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        if (POSTGRES != null) {
+            registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+            registry.add("spring.datasource.username", POSTGRES::getUsername);
+            registry.add("spring.datasource.password", POSTGRES::getPassword);
+        } else {
+            registry.add("spring.datasource.url", () -> System.getProperty("loadtest.jdbc-url"));
+        }
+        registry.add("nexusweaver.control-plane.kernel.transport", () -> "tcp");
+        registry.add("nexusweaver.control-plane.kernel.default-port", KERNEL::port);
+        registry.add("nexusweaver.control-plane.scheduler.nodes[0].id", () -> "localhost");
+    }
+
+    @AfterAll
+    static void stopKernel() throws IOException {
+        KERNEL.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier(DeploymentExecutorConfig.DEPLOYMENT_EXECUTOR)
+    private ThreadPoolTaskExecutor deploymentExecutor;
+
+    @Autowired
+    @Qualifier(DeploymentExecutorConfig.SERVICE_START_EXECUTOR)
+    private ThreadPoolTaskExecutor serviceStartExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LatencyRecorder create = new LatencyRecorder("create");
+    private final LatencyRecorder get = new LatencyRecorder("get");
+    private final LatencyRecorder stop = new LatencyRecorder("stop");
+    private final LatencyRecorder start = new LatencyRecorder("start");
+    private final LatencyRecorder delete = new LatencyRecorder("delete");
+    private final LatencyRecorder rollout = new LatencyRecorder("rollout");
+    private final AtomicInteger failedRollouts = new AtomicInteger();
+    private final AtomicInteger stuckRollouts = new AtomicInteger();
+
+    private HttpClient http;
+    private String authorization;
+
+    @Test
+    void deploymentLifecycleThroughput() throws Exception {
+        http = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(CONCURRENCY))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString("admin:admin".getBytes(StandardCharsets.UTF_8));
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicInteger next = new AtomicInteger();
+        long startedAt;
+        long elapsed;
+        try (SaturationSampler sampler = new SaturationSampler()
+                .hikari(hikari.getHikariPoolMXBean(), hikari.getMaximumPoolSize())
+                .executor("deploy executor", deploymentExecutor, "outbox due",
+                        () -> (int) meterRegistry.get("nexusweaver.deployments.queued").gauge().value())
+                .executor("service-start executor", serviceStartExecutor)
+                .start(50)) {
+            startedAt = System.nanoTime();
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                workers.add(clients.submit(() -> {
+                    for (int n = next.getAndIncrement(); n < DEPLOYMENTS; n = next.getAndIncrement()) {
+                        runLifecycle(n);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            elapsed = System.nanoTime() - startedAt;
+            report(elapsed, sampler);
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertThat(stuckRollouts.get()).as("rollouts that never settled").isZero();
+        assertThat(create.errors() + stop.errors() + start.errors() + delete.errors())
+                .as("failed REST calls").isZero();
+    }
+
+    private void runLifecycle(int n) throws Exception {
+        DeploymentRequest manifest = DeploymentRequest.builder()
+                .applicationName("loadtest-app-" + (n % APPLICATIONS))
+                .version("1.0." + n)
+                .services(IntStream.range(0, SERVICES)
+                        .mapToObj(s -> DeploymentRequest.ServiceDefinition.builder()
+                                .name("svc-" + s)
+                                .language("python")
+                                .source("./svc-" + s)
+                                .command("python app.py")
+                                .dependsOn(s > 0 ? List.of("svc-" + (s - 1)) : null)
+                                .build())
+                        .toList())
+                .build();
+
+        JsonNode created = call(create, post("/api/v1/deployments", objectMapper.writeValueAsString(manifest)), 202);
+        if (created == null) {
+            return;
+        }
+        String path = "/api/v1/deployments/" + created.get("id").asText();
+
+        awaitRollout(path);
+        // Stops and deletes are accepted at once and carried out from the outbox
+        if (call(stop, post(path + "/stop", ""), 202) != null && awaitTerminated(path)
+                && call(start, post(path + "/start", ""), 202) != null) {
+            awaitRollout(path);
+        }
+        call(delete, request(path).DELETE().build(), 202);
+    }
+
+    private boolean awaitTerminated(String path) throws Exception {
+        long deadline = System.nanoTime() + ROLLOUT_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            JsonNode deployment = call(get, request(path).GET().build(), 200);
+            if (deployment != null && "TERMINATED".equals(deployment.get("status").asText())) {
+                return true;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        stuckRollouts.incrementAndGet();
+        return false;
+    }
+
+    private void awaitRollout(String path) throws Exception {
+        long since = System.nanoTime();
+        long deadline = since + ROLLOUT_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            JsonNode deployment = call(get, request(path).GET().build(), 200);
+            String status = deployment != null ? deployment.get("status").asText() : "";
+            if (SETTLED.contains(status)) {
+                rollout.record(System.nanoTime() - since);
+                if (!"DEPLOYED".equals(status)) {
+                    failedRollouts.incrementAndGet();
+                }
+                return;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        stuckRollouts.incrementAndGet();
+    }
+
+    private JsonNode call(LatencyRecorder recorder, HttpRequest request, int expectedStatus) throws Exception {
+        long since = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        recorder.record(System.nanoTime() - since);
+        if (response.statusCode() != expectedStatus) {
+            recorder.recordError();
+            return null;
+        }
+        return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest post(String path, String body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(60));
+    }
+
+    private void report(long elapsedNanos, SaturationSampler sampler) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        StringBuilder out = new StringBuilder()
+                .append("\n=== Deployment throughput: ").append(DEPLOYMENTS).append(" deployments x ")
+                .append(SERVICES).append(" services, ").append(CONCURRENCY).append(" clients ===\n")
+                .append(String.format("elapsed              %.1fs%n", seconds))
+                .append(String.format("rollouts per second  %.1f (%d rollouts, %d failed, %d stuck)%n",
+                        rollout.count() / seconds, rollout.count(), failedRollouts.get(), stuckRollouts.get()))
+                .append(String.format("lifecycles per second %.1f%n", delete.count() / seconds))
+                .append(String.format("kernel               %d frames, %d injected failures, %d processes left%n",
+                        KERNEL.frameCount(), KERNEL.failureCount(), KERNEL.processCount()));
+        for (LatencyRecorder recorder : List.of(create, get, stop, start, delete, rollout)) {
+            out.append(recorder.summary()).append('\n');
+        }
+        for (String line : sampler.summary()) {
+            out.append(line).append('\n');
+        }
+        System.out.println(out);
+    }
+}
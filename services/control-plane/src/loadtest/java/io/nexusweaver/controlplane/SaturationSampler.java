@@ -0,0 +1,104 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Samples how busy the Hikari pool and the control plane's thread pools are while a load test runs,
+ * keeping the peak and average of each gauge.
+ */
+final class SaturationSampler implements Closeable {
+
+    private final List<Gauge> gauges = new ArrayList<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "saturation-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    SaturationSampler hikari(HikariPoolMXBean pool, int maxPoolSize) {
+        gauges.add(new Gauge("hikari active", pool::getActiveConnections, maxPoolSize));
+        gauges.add(new Gauge("hikari waiting", pool::getThreadsAwaitingConnection, 0));
+        return this;
+    }
+
+    SaturationSampler executor(String name, ThreadPoolTaskExecutor executor) {
+        gauges.add(new Gauge(name + " active", executor::getActiveCount, executor.getMaxPoolSize()));
+        gauges.add(new Gauge(name + " queued", executor::getQueueSize, 0));
+        return this;
+    }
+
+    /**
+     * Sample a pool whose backlog is kept elsewhere, e.g. the deployment executor fed by the outbox.
+     */
+    SaturationSampler executor(String name, ThreadPoolTaskExecutor executor, String backlogName, IntSupplier backlog) {
+        gauges.add(new Gauge(name + " active", executor::getActiveCount, executor.getMaxPoolSize()));
+        gauges.add(new Gauge(backlogName, backlog, 0));
+        return this;
+    }
+
+    SaturationSampler start(long intervalMillis) {
+        timer.scheduleAtFixedRate(() -> gauges.forEach(Gauge::sample), 0, intervalMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * One report line per gauge with its peak, average and, for pools, the share of samples taken while full.
+     */
+    List<String> summary() {
+        return gauges.stream().map(Gauge::summary).toList();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private static final class Gauge {
+
+        private final String name;
+        private final IntSupplier value;
+        private final int capacity;
+        private int samples;
+        private int saturated;
+        private long total;
+        private int peak;
+
+        Gauge(String name, IntSupplier value, int capacity) {
+            this.name = name;
+            this.value = value;
+            this.capacity = capacity;
+        }
+
+        synchronized void sample() {
+            int current = value.getAsInt();
+            samples++;
+            total += current;
+            peak = Math.max(peak, current);
+            if (capacity > 0 && current >= capacity) {
+                saturated++;
+            }
+        }
+
+        synchronized String summary() {
+            String line = String.format("%-24s peak=%-5d avg=%7.1f", name, peak, samples > 0 ? total / (double) samples : 0);
+            if (capacity > 0) {
+                line += String.format(" of %-4d saturated=%5.1f%%", capacity, samples > 0 ? 100.0 * saturated / samples : 0);
+            }
+            return line;
+        }
+    }
+}
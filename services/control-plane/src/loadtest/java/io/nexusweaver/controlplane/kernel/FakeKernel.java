@@ -0,0 +1,274 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import lombok.Builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-JVM kernel speaking the framed TCP protocol of services/kernel-go/tcp_server.go, for driving
+ * the control plane without real kernels.
+ *
+ * Start and stop frames are answered after the configured latency, fail with an {@code ERROR:}
+ * reply at the configured failure rate, and have the connection dropped without a reply at the
+ * configured disconnect rate. Started processes are kept in memory and reported by list frames;
+ * starts beyond {@code maxProcesses} are refused. List and health check frames are answered at once.
+ */
+public final class FakeKernel implements Closeable {
+
+    /**
+     * How the fake kernel behaves.
+     *
+     * @param latency time taken by every start and stop
+     * @param jitter random extra time of up to this much added to the latency
+     * @param failureRate share of starts and stops answered with an error, from 0 to 1
+     * @param disconnectRate share of starts and stops whose connection is closed without a reply, from 0 to 1
+     * @param maxProcesses number of processes the kernel runs before refusing starts
+     */
+    @Builder
+    public record Behaviour(Duration latency, Duration jitter, double failureRate, double disconnectRate,
+                            int maxProcesses) {
+
+        public Behaviour {
+            latency = latency != null ? latency : Duration.ZERO;
+            jitter = jitter != null ? jitter : Duration.ZERO;
+            maxProcesses = maxProcesses > 0 ? maxProcesses : Integer.MAX_VALUE;
+        }
+    }
+
+    private final ServerSocket server;
+    private final Behaviour behaviour;
+    private final Map<String, String> processes = new ConcurrentHashMap<>();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private FakeKernel(ServerSocket server, Behaviour behaviour) {
+        this.server = server;
+        this.behaviour = behaviour;
+    }
+
+    /**
+     * Start a kernel listening on a free loopback port.
+     */
+    public static FakeKernel start(Behaviour behaviour) throws IOException {
+        FakeKernel kernel = new FakeKernel(new ServerSocket(0, 200, InetAddress.getLoopbackAddress()), behaviour);
+        Thread acceptor = new Thread(kernel::accept, "fake-kernel");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return kernel;
+    }
+
+    public String host() {
+        return server.getInetAddress().getHostAddress();
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Number of processes currently running.
+     */
+    public int processCount() {
+        return processes.size();
+    }
+
+    /**
+     * Number of frames received so far.
+     */
+    public long frameCount() {
+        return frames.get();
+    }
+
+    /**
+     * Number of starts and stops failed or dropped on purpose so far.
+     */
+    public long failureCount() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> serve(socket), "fake-kernel-conn");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        ByteBuffer header = ByteBuffer.allocate(KernelProtocol.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                header.clear();
+                in.readFully(header.array());
+                int type = header.getInt();
+                byte[] body = new byte[header.getInt()];
+                in.readFully(body);
+                frames.incrementAndGet();
+
+                byte[] data;
+                if (type == KernelProtocol.MSG_LIST_PROCESSES_BINARY) {
+                    data = listProcesses();
+                } else {
+                    String reply = answer(type, body);
+                    if (reply == null) {
+                        return; // drop the connection without answering
+                    }
+                    data = reply.getBytes(StandardCharsets.UTF_8);
+                }
+                header.clear();
+                header.putInt(type).putInt(data.length);
+                out.write(header.array());
+                out.write(data);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String answer(int type, byte[] body) throws InterruptedException {
+        switch (type) {
+            case KernelProtocol.MSG_START_PROCESS, KernelProtocol.MSG_START_PROCESS_BINARY,
+                 KernelProtocol.MSG_STOP_PROCESS -> {
+                simulateWork();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (random.nextDouble() < behaviour.disconnectRate()) {
+                    failures.incrementAndGet();
+                    return null;
+                }
+                if (random.nextDouble() < behaviour.failureRate()) {
+                    failures.incrementAndGet();
+                    return type == KernelProtocol.MSG_STOP_PROCESS
+                            ? "ERROR: Failed to stop process: injected failure"
+                            : "ERROR: Failed to start process: injected failure";
+                }
+                return switch (type) {
+                    case KernelProtocol.MSG_START_PROCESS -> startProcess(new String(body, StandardCharsets.UTF_8));
+                    case KernelProtocol.MSG_START_PROCESS_BINARY -> startProcess(ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN));
+                    default -> stopProcess(new String(body, StandardCharsets.UTF_8).trim());
+                };
+            }
+            case KernelProtocol.MSG_LIST_PROCESSES -> {
+                StringBuilder list = new StringBuilder("Processes:\n");
+                processes.forEach((id, name) -> list.append(id).append(' ').append(name).append(" running python\n"));
+                return list.toString();
+            }
+            case KernelProtocol.MSG_HEALTH_CHECK -> {
+                return "OK: Kernel is healthy";
+            }
+            default -> {
+                return "ERROR: Unknown message type";
+            }
+        }
+    }
+
+    private byte[] listProcesses() {
+        // Process count, then length-prefixed ID, name, status and language of each
+        ByteArrayOutputStream list = new ByteArrayOutputStream();
+        ByteBuffer field = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        synchronized (processes) {
+            list.writeBytes(field.putInt(0, processes.size()).array());
+            processes.forEach((id, name) -> {
+                for (String value : new String[] {id, name, "running", "python"}) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    list.writeBytes(field.putInt(0, bytes.length).array());
+                    list.writeBytes(bytes);
+                }
+            });
+        }
+        return list.toByteArray();
+    }
+
+    private String startProcess(String data) {
+        // Expected format: "processId processName command"
+        String[] parts = data.split(" ", 3);
+        if (parts.length < 3) {
+            return "ERROR: Invalid message format";
+        }
+        return register(parts[0], parts[1]);
+    }
+
+    private String startProcess(ByteBuffer body) {
+        // Length-prefixed process ID, name and command, then memory limit and CPU shares
+        try {
+            String processId = readString(body);
+            String processName = readString(body);
+            readString(body);
+            body.getLong();
+            body.getInt();
+            return register(processId, processName);
+        } catch (RuntimeException e) {
+            return "ERROR: Invalid message format";
+        }
+    }
+
+    private static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String register(String processId, String processName) {
+        synchronized (processes) {
+            if (processes.size() >= behaviour.maxProcesses()) {
+                return "ERROR: Process limit of " + behaviour.maxProcesses() + " reached";
+            }
+            processes.put(processId, processName);
+        }
+        return "Process started successfully: " + processId;
+    }
+
+    private String stopProcess(String processId) {
+        return processes.remove(processId) != null
+                ? "Process stopped successfully"
+                : "ERROR: Process not found: " + processId;
+    }
+
+    private void simulateWork() throws InterruptedException {
+        long nanos = behaviour.latency().toNanos();
+        long jitter = behaviour.jitter().toNanos();
+        if (jitter > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter);
+        }
+        if (nanos > 0) {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        }
+    }
+}
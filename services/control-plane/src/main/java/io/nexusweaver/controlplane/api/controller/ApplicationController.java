@@ -14,6 +14,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,42 +34,59 @@ public class ApplicationController {
     private final ApplicationService applicationService;
     
     @GetMapping
-    @Operation(summary = "Get all applications", description = "Returns a list of all applications with their deployment statistics")
-    @ApiResponse(responseCode = "200", description = "List of applications")
-    public ResponseEntity<List<ApplicationDto>> getAllApplications() {
-        log.info("Fetching all applications");
-        try {
-            List<ApplicationDto> applications = applicationService.getAllApplications();
-            return ResponseEntity.ok(applications);
-        } catch (Exception e) {
-            log.error("Error fetching applications", e);
-            throw e;
+    @Operation(summary = "Get all applications", description = "Returns applications with their deployment statistics, "
+            + "one page at a time. When more results exist, the next page is advertised in the X-Next-Cursor and Link headers")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "List of applications"),
+        @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or sort")
+    })
+    public ResponseEntity<List<ApplicationDto>> getAllApplications(
+            @Parameter(description = "Filter by name (case-insensitive substring)") @RequestParam(required = false) String name,
+            @Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Sort order: createdAt[,asc|desc], newest first by default") @RequestParam(required = false) String sort,
+            @Parameter(description = "ETag of a cached copy; answered with 304 if still current")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Fetching applications");
+        String eTag = ETags.of(applicationService.getApplicationsVersion(name, cursor, limit, sort));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
         }
+        return CursorPageResponses.ok(applicationService.getAllApplications(name, cursor, limit, sort), eTag);
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Get application by ID", description = "Returns details of a specific application")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Application found"),
+        @ApiResponse(responseCode = "304", description = "Application unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Application not found")
     })
     public ResponseEntity<ApplicationDto> getApplication(
-            @Parameter(description = "Application ID") @PathVariable UUID id) {
+            @Parameter(description = "Application ID") @PathVariable UUID id,
+            @Parameter(description = "ETag of a cached copy; answered with 304 if still current")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Fetching application with id: {}", id);
+        String eTag = ETags.of(applicationService.getApplicationVersion(id));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
         ApplicationDto application = applicationService.getApplication(id);
-        return ResponseEntity.ok(application);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(ETags.REVALIDATE).body(application);
     }
     
     @DeleteMapping("/{id}")
-    @Operation(summary = "Delete application", description = "Deletes an application and all its deployments")
+    @Operation(summary = "Delete application", description = "Deletes an application and all its deployments; "
+            + "each deployment is stopped and removed in the background, and the application with the last one")
     @ApiResponses({
-        @ApiResponse(responseCode = "204", description = "Application deleted successfully"),
+        @ApiResponse(responseCode = "202", description = "Deployments queued for deletion in TERMINATING state"),
         @ApiResponse(responseCode = "404", description = "Application not found")
     })
     public ResponseEntity<Void> deleteApplication(
             @Parameter(description = "Application ID") @PathVariable UUID id) {
         log.info("Deleting application with id: {}", id);
         applicationService.deleteApplication(id);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.accepted().build();
     }
 }
\ No newline at end of file
@@ -5,8 +5,13 @@
 
 package io.nexusweaver.controlplane.api.controller;
 
+import io.nexusweaver.controlplane.api.dto.BatchDeploymentRequest;
 import io.nexusweaver.controlplane.api.dto.DeploymentRequest;
 import io.nexusweaver.controlplane.api.dto.DeploymentResponse;
+import io.nexusweaver.controlplane.api.sse.DeploymentEventHub;
+import io.nexusweaver.controlplane.api.sse.ProcessLogStreams;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.exception.ResourceNotFoundException;
 import io.nexusweaver.controlplane.service.DeploymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,9 +21,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -33,12 +42,17 @@ import java.util.UUID;
 @Tag(name = "Deployments", description = "Deployment management endpoints")
 public class DeploymentController {
 
+    private static final String EXPORT_MEDIA_TYPE = "application/x-ndjson";
+
     private final DeploymentService deploymentService;
+    private final DeploymentEventHub eventHub;
+    private final ProcessLogStreams logStreams;
+    private final NexusWeaverProperties properties;
 
     @PostMapping
-    @Operation(summary = "Create a new deployment", description = "Deploy an application based on the provided manifest")
+    @Operation(summary = "Create a new deployment", description = "Accept a manifest for deployment; the rollout runs in the background")
     @ApiResponses({
-        @ApiResponse(responseCode = "201", description = "Deployment created successfully"),
+        @ApiResponse(responseCode = "202", description = "Deployment accepted and queued in PENDING state"),
         @ApiResponse(responseCode = "400", description = "Invalid deployment request"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -46,74 +60,175 @@ public class DeploymentController {
             @Valid @RequestBody DeploymentRequest request) {
         log.info("Creating deployment for application: {}", request.getApplicationName());
         DeploymentResponse response = deploymentService.createDeployment(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Create several deployments", description = "Accept a list of manifests in one transaction; "
+            + "every rollout runs in the background")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Deployments accepted and queued in PENDING state, in request order"),
+        @ApiResponse(responseCode = "400", description = "Invalid deployment request or too many deployments"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<DeploymentResponse>> createDeployments(
+            @Valid @RequestBody BatchDeploymentRequest request) {
+        log.info("Creating {} deployments", request.getDeployments().size());
+        List<DeploymentResponse> response = deploymentService.createDeployments(request.getDeployments());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping(value = "/export", produces = EXPORT_MEDIA_TYPE)
+    @Operation(summary = "Export all deployments", description = "Stream every deployment with its services as "
+            + "newline-delimited JSON, oldest first")
+    @ApiResponse(responseCode = "200", description = "One deployment per line")
+    public ResponseEntity<StreamingResponseBody> exportDeployments() {
+        log.info("Exporting deployment inventory");
+        StreamingResponseBody body = deploymentService::exportDeployments;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(EXPORT_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"deployments.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to deployment status changes", description = "Server-sent events for every "
+            + "deployment and service status change, optionally limited to one application")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream of deployment and service events"),
+        @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    })
+    public SseEmitter subscribeToDeployments(
+            @Parameter(description = "Filter by application ID") @RequestParam(required = false) UUID applicationId) {
+        log.debug("Subscribing to deployment events - applicationId: {}", applicationId);
+        return eventHub.subscribe(applicationId);
+    }
+
+    @GetMapping(value = "/{deploymentId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to one deployment", description = "Server-sent events for a deployment: "
+            + "a snapshot of its current state, then every deployment and service status change")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream starting with a snapshot event"),
+        @ApiResponse(responseCode = "404", description = "Deployment not found"),
+        @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    })
+    public SseEmitter subscribeToDeployment(
+            @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId) {
+        log.debug("Subscribing to events of deployment: {}", deploymentId);
+        return eventHub.subscribeToDeployment(deploymentId, () -> deploymentService.getDeployment(deploymentId));
+    }
+
+    @GetMapping(value = "/{deploymentId}/services/{serviceName}/logs", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow service logs", description = "Server-sent events with the recent and live log "
+            + "lines of a running service. All watchers of a process share one stream from the kernel. "
+            + "Needs a kernel serving the api/v1 StreamLogs call over gRPC. The bundled Go kernel does not: "
+            + "with it this answers 501 on the tcp transport, and the stream ends with an error on grpc")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream of log, gap and end events"),
+        @ApiResponse(responseCode = "404", description = "Deployment or service not found"),
+        @ApiResponse(responseCode = "409", description = "Service has no running process"),
+        @ApiResponse(responseCode = "501", description = "Kernel transport or kernel cannot stream logs"),
+        @ApiResponse(responseCode = "503", description = "Too many log watchers")
+    })
+    public SseEmitter followServiceLogs(
+            @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId,
+            @Parameter(description = "Service name") @PathVariable String serviceName,
+            @Parameter(description = "Number of earlier lines to replay first") @RequestParam(required = false) Integer tail) {
+        log.debug("Following logs of service {} in deployment {}", serviceName, deploymentId);
+        DeploymentResponse.ServiceResponse service = deploymentService.getDeployment(deploymentId).getServices().stream()
+                .filter(s -> s.getName().equals(serviceName))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found: " + serviceName));
+        if (service.getProcessId() == null || service.getNodeId() == null) {
+            throw new IllegalStateException("Service " + serviceName + " has no running process");
+        }
+        return logStreams.watch(service.getNodeId(), service.getProcessId(),
+                tail != null ? tail : properties.getLogs().getDefaultTailLines());
     }
 
     @GetMapping("/{deploymentId}")
     @Operation(summary = "Get deployment by ID", description = "Retrieve details of a specific deployment")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Deployment found"),
+        @ApiResponse(responseCode = "304", description = "Deployment unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Deployment not found")
     })
     public ResponseEntity<DeploymentResponse> getDeployment(
-            @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId) {
+            @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId,
+            @Parameter(description = "ETag of a cached copy; answered with 304 if still current")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Fetching deployment: {}", deploymentId);
+        String eTag = ETags.of(deploymentService.getDeploymentVersion(deploymentId));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
+        }
         DeploymentResponse response = deploymentService.getDeployment(deploymentId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(ETags.REVALIDATE).body(response);
     }
 
     @GetMapping
-    @Operation(summary = "List all deployments", description = "Retrieve a list of all deployments")
-    @ApiResponse(responseCode = "200", description = "List of deployments")
+    @Operation(summary = "List all deployments", description = "Retrieve deployments one page at a time. "
+            + "When more results exist, the next page is advertised in the X-Next-Cursor and Link headers")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "List of deployments"),
+        @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Invalid status, cursor, limit or sort")
+    })
     public ResponseEntity<List<DeploymentResponse>> listDeployments(
             @Parameter(description = "Filter by application ID") @RequestParam(required = false) UUID applicationId,
-            @Parameter(description = "Filter by status") @RequestParam(required = false) String status) {
-        log.debug("Listing deployments - applicationId: {}, status: {}", applicationId, status);
-        try {
-            List<DeploymentResponse> deployments = deploymentService.listDeployments(applicationId, status);
-            return ResponseEntity.ok(deployments);
-        } catch (Exception e) {
-            log.error("Error in listDeployments controller", e);
-            throw e;
+            @Parameter(description = "Filter by status") @RequestParam(required = false) String status,
+            @Parameter(description = "Cursor from the previous page's X-Next-Cursor header") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Sort order: createdAt[,asc|desc], newest first by default") @RequestParam(required = false) String sort,
+            @Parameter(description = "ETag of a cached copy; answered with 304 if still current")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Listing deployments - applicationId: {}, status: {}, cursor: {}", applicationId, status, cursor);
+        // Tagged from the rows of the requested page, read before the page itself is loaded
+        String eTag = ETags.of(deploymentService.getDeploymentsVersion(applicationId, status, cursor, limit, sort));
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ETags.notModified(eTag);
         }
+        return CursorPageResponses.ok(deploymentService.listDeployments(applicationId, status, cursor, limit, sort), eTag);
     }
 
     @DeleteMapping("/{deploymentId}")
-    @Operation(summary = "Delete a deployment", description = "Terminate and remove a deployment")
+    @Operation(summary = "Delete a deployment", description = "Terminate and remove a deployment; "
+            + "processes are stopped and the deployment removed in the background")
     @ApiResponses({
-        @ApiResponse(responseCode = "204", description = "Deployment deleted successfully"),
+        @ApiResponse(responseCode = "202", description = "Deployment queued for deletion in TERMINATING state"),
         @ApiResponse(responseCode = "404", description = "Deployment not found")
     })
     public ResponseEntity<Void> deleteDeployment(
             @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId) {
         log.info("Deleting deployment: {}", deploymentId);
         deploymentService.deleteDeployment(deploymentId);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.accepted().build();
     }
 
     @PostMapping("/{deploymentId}/stop")
-    @Operation(summary = "Stop a deployment", description = "Stop all services in a deployment")
+    @Operation(summary = "Stop a deployment", description = "Stop all services in a deployment; "
+            + "the deployment becomes TERMINATED once every process has stopped")
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Deployment stopped successfully"),
+        @ApiResponse(responseCode = "202", description = "Deployment queued for stopping in TERMINATING state"),
         @ApiResponse(responseCode = "404", description = "Deployment not found")
     })
     public ResponseEntity<DeploymentResponse> stopDeployment(
             @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId) {
         log.info("Stopping deployment: {}", deploymentId);
         DeploymentResponse response = deploymentService.stopDeployment(deploymentId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     @PostMapping("/{deploymentId}/start")
-    @Operation(summary = "Start a deployment", description = "Start all services in a deployment")
+    @Operation(summary = "Start a deployment", description = "Queue a terminated deployment to start all of its services")
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Deployment started successfully"),
+        @ApiResponse(responseCode = "202", description = "Deployment queued in PENDING state"),
         @ApiResponse(responseCode = "404", description = "Deployment not found")
     })
     public ResponseEntity<DeploymentResponse> startDeployment(
             @Parameter(description = "Deployment ID") @PathVariable UUID deploymentId) {
         log.info("Starting deployment: {}", deploymentId);
         DeploymentResponse response = deploymentService.startDeployment(deploymentId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Strong entity tags for conditional GETs.
+ *
+ * Controllers ask the service for a cheap version string first and answer 304 Not Modified
+ * when it matches {@code If-None-Match}, so the resource itself is only loaded and mapped
+ * when it changed. The version is read before the body and from the same source, so a tag
+ * never claims a newer state than the body it is sent with.
+ */
+final class ETags {
+
+    // Clients may cache but must revalidate with If-None-Match before every use
+    static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ETags() {
+    }
+
+    /**
+     * Strong entity tag for an opaque version string.
+     */
+    static String of(String version) {
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the given entity tag.
+     * Uses the weak comparison RFC 9110 prescribes for If-None-Match.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+}
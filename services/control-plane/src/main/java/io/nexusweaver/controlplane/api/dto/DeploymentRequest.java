@@ -70,6 +70,10 @@ public class DeploymentRequest {
 
         @Schema(description="Resource limits")
         private ResourceLimits limits;
+
+        @Schema(description="Names of services in this manifest that must be running before this one starts",
+                example="[\"db\"]")
+        private List<String> dependsOn;
     }
     @Data
     @Builder
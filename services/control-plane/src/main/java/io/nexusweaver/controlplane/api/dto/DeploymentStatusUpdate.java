@@ -0,0 +1,58 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Payload of a deployment or service status event pushed to subscribers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Deployment or service status change")
+public class DeploymentStatusUpdate {
+
+    @Schema(description = "Deployment ID")
+    private UUID deploymentId;
+
+    @Schema(description = "Application ID")
+    private UUID applicationId;
+
+    @Schema(description = "Service ID (service events only)")
+    private UUID serviceId;
+
+    @Schema(description = "Service name (service events only)")
+    private String serviceName;
+
+    @Schema(description = "Status before the change")
+    private String previousStatus;
+
+    @Schema(description = "Status after the change")
+    private String status;
+
+    @Schema(description = "True if the deployment was deleted (deployment events only)")
+    private Boolean deleted;
+
+    @Schema(description = "Node the service runs on (service events only)")
+    private String nodeId;
+
+    @Schema(description = "Kernel process ID (service events only)")
+    private String processId;
+
+    @Schema(description = "When the change was published")
+    private Instant timestamp;
+}
@@ -0,0 +1,252 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.api.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nexusweaver.controlplane.api.dto.DeploymentResponse;
+import io.nexusweaver.controlplane.api.dto.DeploymentStatusUpdate;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.config.WebMvcAsyncConfig;
+import io.nexusweaver.controlplane.event.DeploymentEvent;
+import io.nexusweaver.controlplane.event.ServiceStatusEvent;
+import io.nexusweaver.controlplane.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fans deployment and service status changes out to server-sent event subscribers.
+ *
+ * Every change is serialized once and offered to each matching subscriber's bounded buffer;
+ * a sender pool drains the buffers. A subscriber whose buffer is full is too slow to keep
+ * up and is disconnected rather than allowed to hold back the others or grow memory.
+ * Clients are expected to reconnect and resynchronise from the initial snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeploymentEventHub {
+
+    static final String DEPLOYMENT_EVENT = "deployment";
+    static final String SERVICE_EVENT = "service";
+    static final String SNAPSHOT_EVENT = "snapshot";
+
+    private final NexusWeaverProperties properties;
+    private final ObjectMapper objectMapper;
+    @Qualifier(WebMvcAsyncConfig.EVENT_STREAM_EXECUTOR)
+    private final Executor sender;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Subscribe to changes of one deployment. The first event is a snapshot of its current state,
+     * taken after the subscription is registered so that no later change is missed.
+     *
+     * @param deploymentId the deployment
+     * @param snapshot loads the current state of the deployment
+     */
+    public SseEmitter subscribeToDeployment(UUID deploymentId, Supplier<DeploymentResponse> snapshot) {
+        Subscriber subscriber = register(deploymentId, null);
+        try {
+            subscriber.offerFirst(encode(SNAPSHOT_EVENT, snapshot.get()));
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Subscribe to changes of all deployments, or of all deployments of one application.
+     *
+     * @param applicationId the application, or {@code null} for every deployment
+     */
+    public SseEmitter subscribe(UUID applicationId) {
+        return register(null, applicationId).emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeploymentEvent(DeploymentEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publish(event.deploymentId(), event.applicationId(), DEPLOYMENT_EVENT, DeploymentStatusUpdate.builder()
+                .deploymentId(event.deploymentId())
+                .applicationId(event.applicationId())
+                .previousStatus(event.previousStatus() != null ? event.previousStatus().name() : null)
+                .status(event.status().name())
+                .deleted(event.type() == DeploymentEvent.Type.DELETED ? Boolean.TRUE : null)
+                .timestamp(Instant.now())
+                .build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServiceStatusEvent(ServiceStatusEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publish(event.deploymentId(), event.applicationId(), SERVICE_EVENT, DeploymentStatusUpdate.builder()
+                .deploymentId(event.deploymentId())
+                .applicationId(event.applicationId())
+                .serviceId(event.serviceId())
+                .serviceName(event.serviceName())
+                .previousStatus(event.previousStatus() != null ? event.previousStatus().name() : null)
+                .status(event.status().name())
+                .nodeId(event.nodeId())
+                .processId(event.processId())
+                .timestamp(Instant.now())
+                .build());
+    }
+
+    /**
+     * Keep idle connections open through proxies and detect clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${nexusweaver.control-plane.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscribers.forEach(subscriber -> subscriber.offer(ping));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private Subscriber register(UUID deploymentId, UUID applicationId) {
+        NexusWeaverProperties.Events config = properties.getEvents();
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            throw new ServiceUnavailableException("Too many event subscribers, try again later");
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(config.getSubscriptionTimeout()),
+                deploymentId, applicationId, config.getBufferSize());
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        // Let the client reconnect instead of surfacing the async timeout as an error
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Event subscriber added (deployment: {}, application: {}), {} connected",
+                deploymentId, applicationId, subscribers.size());
+        return subscriber;
+    }
+
+    private void publish(UUID deploymentId, UUID applicationId, String name, DeploymentStatusUpdate update) {
+        Set<ResponseBodyEmitter.DataWithMediaType> event = encode(name, update);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(deploymentId, applicationId)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> encode(String name, Object payload) {
+        try {
+            // Serialized once and shared by every subscriber
+            return SseEmitter.event()
+                    .id(Long.toString(sequence.incrementAndGet()))
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + name + " event", e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final UUID deploymentId;
+        private final UUID applicationId;
+        private final LinkedBlockingDeque<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, UUID deploymentId, UUID applicationId, int bufferSize) {
+            this.emitter = emitter;
+            this.deploymentId = deploymentId;
+            this.applicationId = applicationId;
+            this.buffer = new LinkedBlockingDeque<>(bufferSize);
+        }
+
+        private boolean matches(UUID eventDeploymentId, UUID eventApplicationId) {
+            return (deploymentId == null || deploymentId.equals(eventDeploymentId))
+                    && (applicationId == null || applicationId.equals(eventApplicationId));
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (buffer.offerLast(event)) {
+                scheduleDrain();
+            } else {
+                log.warn("Disconnecting slow event subscriber with {} undelivered events", buffer.size());
+                remove(this);
+            }
+        }
+
+        private void offerFirst(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (buffer.offerFirst(event)) {
+                scheduleDrain();
+            } else {
+                remove(this);
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> event = buffer.pollFirst();
+                if (event == null) {
+                    draining.set(false);
+                    // An event may have arrived after the poll but before the flag was cleared
+                    if (buffer.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Event subscriber went away: {}", e.getMessage());
+                    subscribers.remove(this);
+                    buffer.clear();
+                    draining.set(false);
+                    return;
+                }
+            }
+        }
+    }
+}
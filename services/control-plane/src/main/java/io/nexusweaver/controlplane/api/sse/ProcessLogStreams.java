@@ -0,0 +1,308 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.api.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.config.WebMvcAsyncConfig;
+import io.nexusweaver.controlplane.exception.ServiceUnavailableException;
+import io.nexusweaver.controlplane.service.KernelService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares one kernel log stream per process between any number of HTTP watchers.
+ *
+ * Each followed process has a fixed-size ring of its most recent lines, encoded once as
+ * server-sent events. Watchers read the ring at their own pace from their own position; the
+ * upstream stream never waits for them. A watcher that falls more than a ring behind skips
+ * ahead and is told how many lines it missed. The upstream stream is cancelled when the
+ * last watcher of a process leaves.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessLogStreams {
+
+    static final String LOG_EVENT = "log";
+    static final String GAP_EVENT = "gap";
+    static final String END_EVENT = "end";
+
+    private static final int MAX_BATCH = 256;
+
+    private final KernelService kernelService;
+    private final NexusWeaverProperties properties;
+    private final ObjectMapper objectMapper;
+    @Qualifier(WebMvcAsyncConfig.LOG_STREAM_EXECUTOR)
+    private final Executor sender;
+
+    private final Map<String, LogTail> tails = new ConcurrentHashMap<>();
+    private final AtomicInteger watcherCount = new AtomicInteger();
+
+    /**
+     * Watch the log output of a process, starting with up to {@code tailLines} earlier lines.
+     *
+     * @param nodeId the node the process runs on
+     * @param processId the process ID
+     * @param tailLines number of earlier lines to replay, capped by the ring size
+     */
+    public SseEmitter watch(String nodeId, String processId, int tailLines) {
+        NexusWeaverProperties.Logs config = properties.getLogs();
+        if (watcherCount.get() >= config.getMaxWatchers()) {
+            throw new ServiceUnavailableException("Too many log watchers, try again later");
+        }
+        int tail = Math.max(0, Math.min(tailLines, config.getBufferSize()));
+        String key = nodeId + "/" + processId;
+
+        while (true) {
+            LogTail logTail = tails.computeIfAbsent(key, k -> new LogTail(k, config.getBufferSize()));
+            Watcher watcher = logTail.addWatcher(tail, properties.getEvents().getSubscriptionTimeout());
+            if (watcher != null) {
+                try {
+                    // The first watcher opens the upstream stream, asking the kernel for its own tail
+                    logTail.openIfNeeded(nodeId, processId, tail);
+                } catch (RuntimeException e) {
+                    logTail.removeWatcher(watcher);
+                    logTail.onClosed(e);
+                    throw e;
+                }
+                return watcher.emitter;
+            }
+            // Raced with the stream closing; start a fresh one
+            tails.remove(key, logTail);
+        }
+    }
+
+    /**
+     * Keep idle log streams open through proxies and detect watchers that went away.
+     */
+    @Scheduled(fixedDelayString = "${nexusweaver.control-plane.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (LogTail logTail : tails.values()) {
+            for (Watcher watcher : logTail.watchers) {
+                watcher.pingPending = true;
+                watcher.scheduleDrain();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        tails.values().forEach(logTail -> logTail.onClosed(null));
+        tails.clear();
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> encode(String name, long id, Object payload) {
+        try {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name);
+            if (id >= 0) {
+                event.id(Long.toString(id));
+            }
+            return event.data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + name + " event", e);
+        }
+    }
+
+    /**
+     * Ring of the most recent lines of one process, fed by a single upstream stream.
+     */
+    private final class LogTail implements KernelService.LogListener {
+        private final String key;
+        private final Set<ResponseBodyEmitter.DataWithMediaType>[] ring;
+        private final Set<Watcher> watchers = new CopyOnWriteArraySet<>();
+        private long next;
+        private boolean opened;
+        private boolean closed;
+        private String endReason;
+        private KernelService.LogSubscription upstream;
+
+        @SuppressWarnings("unchecked")
+        private LogTail(String key, int size) {
+            this.key = key;
+            this.ring = new Set[size];
+        }
+
+        private synchronized Watcher addWatcher(int tail, long timeout) {
+            if (closed) {
+                return null;
+            }
+            Watcher watcher = new Watcher(this, new SseEmitter(timeout), Math.max(next - tail, oldest()));
+            watcher.emitter.onCompletion(() -> removeWatcher(watcher));
+            watcher.emitter.onTimeout(watcher.emitter::complete);
+            watcher.emitter.onError(e -> removeWatcher(watcher));
+            watchers.add(watcher);
+            watcherCount.incrementAndGet();
+            return watcher;
+        }
+
+        private void openIfNeeded(String nodeId, String processId, int tailLines) {
+            synchronized (this) {
+                if (opened || closed) {
+                    return;
+                }
+                opened = true;
+            }
+            KernelService.LogSubscription subscription = kernelService.streamLogs(nodeId, processId, tailLines, this);
+            boolean cancel;
+            synchronized (this) {
+                upstream = subscription;
+                cancel = closed;
+            }
+            if (cancel) {
+                subscription.cancel();
+            }
+            log.debug("Opened log stream for {}", key);
+        }
+
+        private void removeWatcher(Watcher watcher) {
+            KernelService.LogSubscription cancel = null;
+            synchronized (this) {
+                if (!watchers.remove(watcher)) {
+                    return;
+                }
+                watcherCount.decrementAndGet();
+                if (watchers.isEmpty() && !closed) {
+                    closed = true;
+                    endReason = "No watchers left";
+                    cancel = upstream;
+                    tails.remove(key, this);
+                }
+            }
+            if (cancel != null) {
+                cancel.cancel();
+                log.debug("Closed log stream for {}: no watchers left", key);
+            }
+        }
+
+        @Override
+        public void onEntry(KernelService.LogEntry entry) {
+            synchronized (this) {
+                ring[(int) (next % ring.length)] = encode(LOG_EVENT, next, entry);
+                next++;
+            }
+            watchers.forEach(Watcher::scheduleDrain);
+        }
+
+        @Override
+        public void onClosed(Throwable error) {
+            synchronized (this) {
+                if (!closed) {
+                    closed = true;
+                    endReason = error != null ? "Log stream failed: " + error.getMessage() : "Log stream ended";
+                }
+                tails.remove(key, this);
+            }
+            if (error != null) {
+                log.warn("Log stream for {} failed: {}", key, error.getMessage());
+            }
+            // Watchers flush what is left in the ring, then receive the end event
+            watchers.forEach(Watcher::scheduleDrain);
+        }
+
+        private synchronized boolean hasMore(long from) {
+            return next > from || closed;
+        }
+
+        private long oldest() {
+            return Math.max(0, next - ring.length);
+        }
+
+        /**
+         * Copy up to {@link #MAX_BATCH} lines starting at the watcher's position into one write.
+         */
+        private synchronized Batch read(long from) {
+            long start = Math.max(from, oldest());
+            int count = (int) Math.min(next - start, MAX_BATCH);
+            Set<ResponseBodyEmitter.DataWithMediaType> data = new LinkedHashSet<>();
+            for (int i = 0; i < count; i++) {
+                data.addAll(ring[(int) ((start + i) % ring.length)]);
+            }
+            return new Batch(start - from, data, start + count, closed && start + count == next, endReason);
+        }
+    }
+
+    private record Batch(long skipped, Set<ResponseBodyEmitter.DataWithMediaType> data, long next,
+                         boolean ended, String endReason) {
+    }
+
+    private final class Watcher {
+        private final LogTail logTail;
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean pingPending;
+        private long position;
+
+        private Watcher(LogTail logTail, SseEmitter emitter, long position) {
+            this.logTail = logTail;
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        /**
+         * Send everything between this watcher's position and the head of the ring.
+         * A slow client only holds up its own drain; the ring keeps moving without it.
+         */
+        private void drain() {
+            try {
+                while (true) {
+                    Batch batch = logTail.read(position);
+                    if (batch.skipped() > 0) {
+                        emitter.send(encode(GAP_EVENT, -1, Map.of("skipped", batch.skipped())));
+                    }
+                    if (!batch.data().isEmpty()) {
+                        emitter.send(batch.data());
+                    }
+                    position = batch.next();
+                    if (batch.ended()) {
+                        emitter.send(encode(END_EVENT, -1, Map.of("reason", batch.endReason())));
+                        emitter.complete();
+                        return;
+                    }
+                    if (batch.data().isEmpty()) {
+                        if (pingPending) {
+                            pingPending = false;
+                            emitter.send(SseEmitter.event().comment("ping"));
+                        }
+                        draining.set(false);
+                        // A line may have arrived after the read but before the flag was cleared
+                        if (!logTail.hasMore(position) || !draining.compareAndSet(false, true)) {
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Log watcher of {} went away: {}", logTail.key, e.getMessage());
+                draining.set(false);
+                logTail.removeWatcher(this);
+            }
+        }
+    }
+}
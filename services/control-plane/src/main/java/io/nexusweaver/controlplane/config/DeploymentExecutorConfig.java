@@ -0,0 +1,104 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pools that run deployment commands off the request thread.
+ * At most {@code maxConcurrentDeployments} rollouts, stops and deletes run at once; the rest wait in the outbox.
+ */
+@Configuration
+public class DeploymentExecutorConfig {
+
+    public static final String DEPLOYMENT_EXECUTOR = "deploymentExecutor";
+    public static final String SERVICE_START_EXECUTOR = "serviceStartExecutor";
+    public static final String PROCESS_STOP_EXECUTOR = "processStopExecutor";
+    public static final String OUTBOX_EXECUTOR = "outboxExecutor";
+    public static final String DEADLINE_EXECUTOR = "deadlineExecutor";
+
+    @Bean(name = DEPLOYMENT_EXECUTOR)
+    public ThreadPoolTaskExecutor deploymentExecutor(NexusWeaverProperties properties) {
+        int workers = properties.getDeployment().getMaxConcurrentDeployments();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("deploy-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool that starts the services of a deployment in parallel.
+     * Shared by all rollouts so the number of concurrent kernel start calls stays bounded.
+     */
+    @Bean(name = SERVICE_START_EXECUTOR)
+    public ThreadPoolTaskExecutor serviceStartExecutor(NexusWeaverProperties properties) {
+        int workers = properties.getDeployment().getMaxParallelServiceStarts();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("service-start-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool that stops the processes of deleted deployments and applications in parallel.
+     */
+    @Bean(name = PROCESS_STOP_EXECUTOR)
+    public ThreadPoolTaskExecutor processStopExecutor(NexusWeaverProperties properties) {
+        int workers = properties.getDeployment().getMaxParallelProcessStops();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("process-stop-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Single thread that claims outbox commands. At most one claim runs and one more waits;
+     * further wake-ups are dropped, since the waiting claim will see their commands too.
+     */
+    @Bean(name = OUTBOX_EXECUTOR)
+    public ThreadPoolTaskExecutor outboxExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("outbox-");
+        return executor;
+    }
+
+    /**
+     * Pool that fails deployments past their timeout. Kept apart from the deployment pool,
+     * whose workers may all be stuck on the kernel calls being timed out.
+     */
+    @Bean(name = DEADLINE_EXECUTOR)
+    public ThreadPoolTaskExecutor deadlineExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("deadline-");
+        return executor;
+    }
+}
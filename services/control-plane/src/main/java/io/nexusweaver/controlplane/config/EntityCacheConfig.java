@@ -0,0 +1,69 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine-backed regions of the Hibernate second-level cache.
+ *
+ * Only applications are cached, by id. The regions live in each control plane instance and
+ * nothing invalidates them when another instance sharing the database writes, so the cache is
+ * kept off deployments and services, whose status the outbox changes on whichever instance
+ * claims the work, and off queries, whose results other instances change by inserting rows.
+ * An application changed elsewhere can be served stale until its entry expires
+ * {@code timeToLive} after it was written; checks that must see the current row, such as the
+ * deleting flag, refresh or lock it.
+ *
+ * Hibernate is configured to fail on a region missing here, so a new {@code @Cache} annotation
+ * cannot silently create an unbounded cache. Hit and miss counts are published per region as
+ * {@code hibernate.second.level.cache.requests}.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String APPLICATIONS = "applications";
+
+    @Bean
+    public CacheManager entityCacheManager(NexusWeaverProperties properties) {
+        NexusWeaverProperties.Cache cache = properties.getCache();
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("nexusweaver-entities"), getClass().getClassLoader());
+
+        createRegion(cacheManager, APPLICATIONS, cache.getEntityMaxEntries(), cache.getTimeToLive());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, long timeToLive) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (timeToLive > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(timeToLive)));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
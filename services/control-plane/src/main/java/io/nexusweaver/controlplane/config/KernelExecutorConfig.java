@@ -0,0 +1,32 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Thread pool that probes kernel node health in the background.
+ * Probes of a hung node only tie up their own thread, never the scheduler.
+ */
+@Configuration
+public class KernelExecutorConfig {
+
+    public static final String KERNEL_PROBE_EXECUTOR = "kernelProbeExecutor";
+
+    @Bean(name = KERNEL_PROBE_EXECUTOR)
+    public ThreadPoolTaskExecutor kernelProbeExecutor(NexusWeaverProperties properties) {
+        int workers = properties.getKernel().getHealthProbeThreads();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("kernel-probe-");
+        return executor;
+    }
+}
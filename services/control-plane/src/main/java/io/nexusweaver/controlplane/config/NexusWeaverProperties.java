@@ -9,6 +9,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for Nexus Weaver.
  */
@@ -20,18 +23,137 @@ public class NexusWeaverProperties {
     private Kernel kernel = new Kernel();
     private Deployment deployment = new Deployment();
     private Process process = new Process();
+    private Stats stats = new Stats();
+    private Api api = new Api();
+    private Events events = new Events();
+    private Logs logs = new Logs();
+    private Reconciler reconciler = new Reconciler();
+    private Scheduler scheduler = new Scheduler();
+    private Cache cache = new Cache();
+    private Outbox outbox = new Outbox();
 
     @Data
     public static class Kernel {
+        private Transport transport = Transport.TCP;
         private int defaultPort = 50051;
+        private int grpcPort = 50052;
         private int connectionTimeout = 5000;
         private int requestTimeout = 30000;
+        private int maxConnectionsPerNode = 8;
+        private long idleTimeout = 60000;
+        private long validateAfterIdle = 5000;
+        private long evictionInterval = 30000;
+        private boolean keepAlive = true;
+        private long keepAliveTime = 30000;
+        private long processSnapshotTtl = 2000;
+        private long healthProbeInterval = 5000;
+        private int healthProbeThreads = 4;
+        private int circuitFailureThreshold = 3;
+        private int circuitRecoveryThreshold = 2;
+    }
+
+    /**
+     * Wire protocol used to talk to kernel nodes.
+     */
+    public enum Transport {
+        TCP,
+        GRPC
     }
 
     @Data
     public static class Deployment {
         private int maxConcurrentDeployments = 10;
         private int deploymentTimeout = 300000;
+        private long deadlineTick = 1000;
+        private int maxParallelServiceStarts = 32;
+        private int maxParallelProcessStops = 32;
+        private int maxBatchSize = 500;
+        private int maxTransitionAttempts = 5;
+    }
+
+    @Data
+    public static class Outbox {
+        private long pollInterval = 1000;
+        private int batchSize = 50;
+        private long lease = 600000;
+        private long retryDelay = 5000;
+        private int maxAttempts = 5;
+    }
+
+    @Data
+    public static class Api {
+        private int defaultPageSize = 50;
+        private int maxPageSize = 500;
+        private int streamingThreads = 8;
+        private long asyncRequestTimeout = 600000;
+    }
+
+    @Data
+    public static class Events {
+        private int maxSubscribers = 1000;
+        private int bufferSize = 256;
+        private int senderThreads = 4;
+        private long heartbeatInterval = 15000;
+        private long subscriptionTimeout = 1800000;
+    }
+
+    @Data
+    public static class Logs {
+        private int bufferSize = 1000;
+        private int defaultTailLines = 100;
+        private int maxWatchers = 500;
+        private int senderThreads = 8;
+    }
+
+    @Data
+    public static class Scheduler {
+        private PlacementPolicy policy = PlacementPolicy.SPREAD;
+        private long resyncInterval = 300000;
+        private List<Node> nodes = new ArrayList<>();
+    }
+
+    /**
+     * A kernel node services can be placed on, with the resources it offers to them.
+     */
+    @Data
+    public static class Node {
+        private String id;
+        private long memoryBytes = 17179869184L; // 16GB
+        private int cpuShares = 16384;
+    }
+
+    /**
+     * How services are spread over kernel nodes.
+     */
+    public enum PlacementPolicy {
+        /**
+         * Fill the fullest node that still fits, keeping whole nodes free for large services
+         */
+        BIN_PACK,
+        /**
+         * Use the emptiest node, balancing load across nodes
+         */
+        SPREAD
+    }
+
+    @Data
+    public static class Reconciler {
+        private boolean enabled = true;
+        private long interval = 60000;
+        private long tick = 1000;
+        private int batchSize = 500;
+        private long gracePeriod = 10000;
+    }
+
+    @Data
+    public static class Cache {
+        private long entityMaxEntries = 10000;
+        private long timeToLive = 60000;
+    }
+
+    @Data
+    public static class Stats {
+        private long verifyInterval = 300000;
     }
 
     @Data
@@ -72,6 +72,9 @@ public class SecurityConfig {
         // Allow all headers
         configuration.setAllowedHeaders(List.of("*"));
         
+        // Let browser clients follow paged listings
+        configuration.setExposedHeaders(List.of("X-Next-Cursor", "Link"));
+        
         // Allow credentials (for Basic Auth)
         configuration.setAllowCredentials(true);
         
@@ -0,0 +1,79 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Thread pools for asynchronous MVC responses such as streamed exports, server-sent events and log tails.
+ * Declaring the deployment executors switches off Spring Boot's default task executor,
+ * so streaming responses get their own bounded pool here.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcAsyncConfig implements WebMvcConfigurer {
+
+    public static final String MVC_ASYNC_EXECUTOR = "mvcAsyncExecutor";
+    public static final String EVENT_STREAM_EXECUTOR = "eventStreamExecutor";
+    public static final String LOG_STREAM_EXECUTOR = "logStreamExecutor";
+
+    private final NexusWeaverProperties properties;
+
+    @Bean(name = MVC_ASYNC_EXECUTOR)
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        int workers = properties.getApi().getStreamingThreads();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+
+    /**
+     * Pool that writes queued server-sent events to subscribers.
+     * Each subscriber is drained by at most one thread at a time.
+     */
+    @Bean(name = EVENT_STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor eventStreamExecutor() {
+        int workers = properties.getEvents().getSenderThreads();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("sse-");
+        return executor;
+    }
+
+    /**
+     * Pool that writes process log lines to watchers.
+     * Kept apart from the event pool so slow log readers cannot delay status events.
+     */
+    @Bean(name = LOG_STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor logStreamExecutor() {
+        int workers = properties.getLogs().getSenderThreads();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("log-stream-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+        configurer.setDefaultTimeout(properties.getApi().getAsyncRequestTimeout());
+    }
+}
@@ -7,6 +7,9 @@ package io.nexusweaver.controlplane.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -26,13 +29,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = {"deployments"})
+@BatchSize(size = 100)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "applications")
 public class Application {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
-    @EqualsAndHashCode.Include
     private UUID id;
 
     @Column(nullable = false)
@@ -44,6 +48,14 @@ public class Application {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    /**
+     * Set once the application is to be deleted. It is removed together with its last deployment,
+     * and no deployments can be added to it in the meantime.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean deleting = false;
+
     @OneToMany(mappedBy = "application", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<Deployment> deployments = new HashSet<>();
@@ -71,4 +83,17 @@ public class Application {
         deployments.remove(deployment);
         deployment.setApplication(null);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Application other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Application.class.hashCode();
+    }
 }
\ No newline at end of file
@@ -7,12 +7,13 @@ package io.nexusweaver.controlplane.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -26,13 +27,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = {"application", "services"})
 public class Deployment {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
-    @EqualsAndHashCode.Include
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -49,9 +48,12 @@ public class Deployment {
     @Column(columnDefinition = "jsonb")
     private String manifest;
 
+    // A list rather than a set: all services share one hash code (see Service#hashCode),
+    // which made adding or loading thousands of them quadratic
     @OneToMany(mappedBy = "deployment", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @Builder.Default
-    private Set<Service> services = new HashSet<>();
+    private List<Service> services = new ArrayList<>();
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -61,6 +63,29 @@ public class Deployment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Optimistic lock; every update is conditional on it, so concurrent status changes
+     * cannot overwrite each other.
+     */
+    @Version
+    @Column(name = "lock_version", nullable = false)
+    private Long lockVersion;
+
+    /**
+     * Move this deployment to the given status.
+     *
+     * @return the status it had before
+     * @throws IllegalStateException if the transition table does not allow the move
+     */
+    public DeploymentStatus moveTo(DeploymentStatus next) {
+        DeploymentStatus previous = status;
+        if (!previous.canMoveTo(next)) {
+            throw new IllegalStateException("Deployment " + id + " cannot move from " + previous + " to " + next);
+        }
+        status = next;
+        return previous;
+    }
+
     /**
      * Add a service to this deployment.
      */
@@ -76,4 +101,20 @@ public class Deployment {
         services.remove(service);
         service.setDeployment(null);
     }
+
+    /**
+     * Identity-based until persisted; see {@link Service#equals(Object)}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Deployment other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Deployment.class.hashCode();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A command in the deployment outbox.
+ * Written in the same transaction as the state change that calls for it, and deleted once it has run.
+ */
+@Entity
+@Table(name = "deployment_commands", schema = "nexusweaver")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class DeploymentCommand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "deployment_id", nullable = false)
+    private UUID deploymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DeploymentCommandType type;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * When the command may next be claimed: its creation time, the end of the current lease,
+     * or the end of the backoff after a failed attempt.
+     */
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.domain.entity;
+
+/**
+ * Kinds of work queued in the deployment command outbox.
+ */
+public enum DeploymentCommandType {
+    /**
+     * Roll out a PENDING deployment
+     */
+    DEPLOY,
+    
+    /**
+     * Stop the services of a TERMINATING deployment
+     */
+    STOP,
+    
+    /**
+     * Stop the services of a TERMINATING deployment and delete it
+     */
+    DELETE
+}
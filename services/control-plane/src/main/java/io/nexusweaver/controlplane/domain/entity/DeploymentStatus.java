@@ -5,8 +5,14 @@
 
 package io.nexusweaver.controlplane.domain.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Represents the status of a deployment.
+ * The legal moves between statuses are listed in a transition table; see {@link #canMoveTo}.
  */
 public enum DeploymentStatus {
     /**
@@ -37,5 +43,38 @@ public enum DeploymentStatus {
     /**
      * Deployment has been terminated
      */
-    TERMINATED
+    TERMINATED;
+
+    private static final Map<DeploymentStatus, Set<DeploymentStatus>> TRANSITIONS = new EnumMap<>(DeploymentStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(DEPLOYING, FAILED, TERMINATING));
+        TRANSITIONS.put(DEPLOYING, EnumSet.of(DEPLOYED, FAILED, TERMINATING));
+        TRANSITIONS.put(DEPLOYED, EnumSet.of(FAILED, TERMINATING));
+        TRANSITIONS.put(FAILED, EnumSet.of(TERMINATING));
+        // FAILED when the stop runs past the deployment timeout
+        TRANSITIONS.put(TERMINATING, EnumSet.of(TERMINATED, FAILED));
+        TRANSITIONS.put(TERMINATED, EnumSet.of(PENDING));
+    }
+
+    /**
+     * Whether a deployment may move from this status to the given one.
+     * Staying in the same status is always allowed.
+     */
+    public boolean canMoveTo(DeploymentStatus next) {
+        return next == this || TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * The statuses a deployment may move to the given status from.
+     */
+    public static Set<DeploymentStatus> sourcesOf(DeploymentStatus next) {
+        Set<DeploymentStatus> sources = EnumSet.noneOf(DeploymentStatus.class);
+        TRANSITIONS.forEach((from, to) -> {
+            if (to.contains(next)) {
+                sources.add(from);
+            }
+        });
+        return sources;
+    }
 }
\ No newline at end of file
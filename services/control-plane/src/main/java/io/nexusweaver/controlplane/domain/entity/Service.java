@@ -11,6 +11,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -24,13 +26,11 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = {"deployment"})
 public class Service {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
-    @EqualsAndHashCode.Include
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -60,6 +60,12 @@ public class Service {
     @Column(name = "cpu_shares")
     private Integer cpuShares;
 
+    /**
+     * Comma-separated names of services in the same deployment that must be running first.
+     */
+    @Column(name = "depends_on", columnDefinition = "TEXT")
+    private String dependsOn;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -67,4 +73,56 @@ public class Service {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * Optimistic lock; see {@link Deployment#getLockVersion()}.
+     */
+    @Version
+    @Column(name = "lock_version", nullable = false)
+    private Long lockVersion;
+
+    /**
+     * Move this service to the given status.
+     *
+     * @return the status it had before
+     * @throws IllegalStateException if the transition table does not allow the move
+     */
+    public ServiceStatus moveTo(ServiceStatus next) {
+        ServiceStatus previous = status;
+        if (!previous.canMoveTo(next)) {
+            throw new IllegalStateException("Service " + id + " cannot move from " + previous + " to " + next);
+        }
+        status = next;
+        return previous;
+    }
+
+    /**
+     * Names of the services this service depends on.
+     */
+    public List<String> getDependencyNames() {
+        if (dependsOn == null || dependsOn.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(dependsOn.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Services are equal only once persisted with the same ID. Unsaved services are
+     * distinct, so a new deployment can hold several of them before the first flush.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Service other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Service.class.hashCode();
+    }
 }
\ No newline at end of file
@@ -5,8 +5,14 @@
 
 package io.nexusweaver.controlplane.domain.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Represents the status of a service.
+ * The legal moves between statuses are listed in a transition table; see {@link #canMoveTo}.
  */
 public enum ServiceStatus {
     /**
@@ -42,5 +48,26 @@ public enum ServiceStatus {
     /**
      * Service has been terminated
      */
-    TERMINATED
+    TERMINATED;
+
+    private static final Map<ServiceStatus, Set<ServiceStatus>> TRANSITIONS = new EnumMap<>(ServiceStatus.class);
+
+    static {
+        TRANSITIONS.put(INIT, EnumSet.of(STARTING, RUNNING, FAILED));
+        TRANSITIONS.put(STARTING, EnumSet.of(RUNNING, FAILED, STOPPING, STOPPED));
+        TRANSITIONS.put(RUNNING, EnumSet.of(STOPPING, STOPPED, FAILED, TERMINATED));
+        TRANSITIONS.put(STOPPING, EnumSet.of(STOPPED, FAILED, TERMINATED));
+        // Services of a restarted deployment start again from where they ended
+        TRANSITIONS.put(STOPPED, EnumSet.of(STARTING, RUNNING, FAILED, TERMINATED));
+        TRANSITIONS.put(FAILED, EnumSet.of(STARTING, RUNNING, STOPPED, TERMINATED));
+        TRANSITIONS.put(TERMINATED, EnumSet.of(STARTING, RUNNING, FAILED));
+    }
+
+    /**
+     * Whether a service may move from this status to the given one.
+     * Staying in the same status is always allowed.
+     */
+    public boolean canMoveTo(ServiceStatus next) {
+        return next == this || TRANSITIONS.get(this).contains(next);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.event;
+
+import java.util.UUID;
+
+/**
+ * Published when an application and all of its deployments have been deleted.
+ *
+ * @param applicationId the deleted application
+ */
+public record ApplicationDeletedEvent(UUID applicationId) {
+}
@@ -0,0 +1,39 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.event;
+
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A change to a deployment's lifecycle, published in-process after the change is persisted.
+ *
+ * @param type what happened
+ * @param deploymentId the deployment
+ * @param applicationId the application the deployment belongs to
+ * @param previousStatus the status before the change ({@code null} for CREATED)
+ * @param status the status after the change (the last known status for DELETED)
+ * @param createdAt when the deployment was created
+ * @param languages distinct languages of the deployment's services
+ */
+public record DeploymentEvent(
+        Type type,
+        UUID deploymentId,
+        UUID applicationId,
+        DeploymentStatus previousStatus,
+        DeploymentStatus status,
+        LocalDateTime createdAt,
+        Set<String> languages) {
+
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+}
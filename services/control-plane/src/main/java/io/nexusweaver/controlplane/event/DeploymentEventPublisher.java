@@ -0,0 +1,77 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.event;
+
+import io.nexusweaver.controlplane.domain.entity.Deployment;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.Service;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes {@link DeploymentEvent}s and {@link ServiceStatusEvent}s for deployment lifecycle changes.
+ * Call from within the transaction that makes the change; transactional listeners
+ * receive the event only once that transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeploymentEventPublisher {
+
+    private final ApplicationEventPublisher publisher;
+
+    public void created(Deployment deployment) {
+        publish(DeploymentEvent.Type.CREATED, deployment, null, deployment.getStatus());
+    }
+
+    public void statusChanged(Deployment deployment, DeploymentStatus previousStatus) {
+        if (previousStatus != deployment.getStatus()) {
+            publish(DeploymentEvent.Type.STATUS_CHANGED, deployment, previousStatus, deployment.getStatus());
+        }
+    }
+
+    public void deleted(Deployment deployment, DeploymentStatus lastStatus) {
+        publish(DeploymentEvent.Type.DELETED, deployment, lastStatus, lastStatus);
+    }
+
+    public void serviceStatusChanged(Service service, ServiceStatus previousStatus) {
+        if (previousStatus != service.getStatus()) {
+            Deployment deployment = service.getDeployment();
+            publisher.publishEvent(new ServiceStatusEvent(deployment.getId(), deployment.getApplication().getId(),
+                    service.getId(), service.getName(), previousStatus, service.getStatus(),
+                    service.getNodeId(), service.getProcessId()));
+        }
+    }
+
+    /**
+     * Publish a service status change made without loading the service, such as by a bulk update.
+     */
+    public void serviceStatusChanged(ServiceStatusEvent event) {
+        if (event.previousStatus() != event.status()) {
+            publisher.publishEvent(event);
+        }
+    }
+
+    public void applicationDeleted(UUID applicationId) {
+        publisher.publishEvent(new ApplicationDeletedEvent(applicationId));
+    }
+
+    private void publish(DeploymentEvent.Type type, Deployment deployment,
+                         DeploymentStatus previousStatus, DeploymentStatus status) {
+        Set<String> languages = deployment.getServices().stream()
+                .map(Service::getLanguage)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        publisher.publishEvent(new DeploymentEvent(type, deployment.getId(), deployment.getApplication().getId(),
+                previousStatus, status, deployment.getCreatedAt(), languages));
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.event;
+
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+
+import java.util.UUID;
+
+/**
+ * A change to the status of one service of a deployment, published in-process after the change is persisted.
+ *
+ * @param deploymentId the deployment the service belongs to
+ * @param applicationId the application the deployment belongs to
+ * @param serviceId the service
+ * @param serviceName the service name
+ * @param previousStatus the status before the change
+ * @param status the status after the change
+ * @param nodeId the node the service runs on, if placed
+ * @param processId the kernel process ID, if started
+ */
+public record ServiceStatusEvent(
+        UUID deploymentId,
+        UUID applicationId,
+        UUID serviceId,
+        String serviceName,
+        ServiceStatus previousStatus,
+        ServiceStatus status,
+        String nodeId,
+        String processId) {
+}
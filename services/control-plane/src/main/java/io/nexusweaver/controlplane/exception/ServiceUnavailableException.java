@@ -0,0 +1,17 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.exception;
+
+/**
+ * Exception thrown when a request cannot be served because a capacity limit is reached
+ * or a kernel node it needs is unavailable.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import java.net.SocketException;
+
+/**
+ * A request frame could not be written in full, so the kernel never saw it and it is safe to resend.
+ */
+public class FrameNotSentException extends SocketException {
+
+    public FrameNotSentException(String message, Throwable cause) {
+        super(message);
+        initCause(cause);
+    }
+}
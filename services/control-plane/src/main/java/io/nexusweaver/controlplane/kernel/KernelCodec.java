@@ -0,0 +1,432 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import io.nexusweaver.controlplane.service.KernelService.ProcessStatus;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encoding of kernel request payloads and decoding of kernel replies, working directly on the
+ * reusable buffers of a {@link KernelConnection}.
+ *
+ * Requests are written into a direct buffer without building intermediate strings or byte arrays.
+ * Replies are inspected in place; strings are only created for the values a caller keeps,
+ * such as process IDs and error messages.
+ */
+public final class KernelCodec {
+
+    /**
+     * Writes the payload of one request frame.
+     */
+    @FunctionalInterface
+    public interface Payload {
+        void writeTo(Encoder out);
+    }
+
+    /**
+     * Decodes the payload of one reply frame. The buffer is only valid until the call returns.
+     */
+    @FunctionalInterface
+    public interface Reply<T> {
+        T read(ByteBuffer body) throws IOException;
+    }
+
+    public static final Payload EMPTY = out -> {
+    };
+
+    private static final int INITIAL_PAYLOAD_SIZE = 4096;
+
+    private static final byte[] OK = ascii("OK");
+    private static final byte[] ERROR = ascii("ERROR");
+    private static final byte[] PROCESS_STARTED = ascii("Process started");
+    private static final byte[] PROCESS_STOPPED = ascii("Process stopped");
+    private static final byte[] UNKNOWN_MESSAGE_TYPE = ascii("ERROR: Unknown message type");
+    private static final byte[] LIST_HEADER = ascii("Processes:");
+
+    private static final byte[][] INIT_STATUSES = {ascii("created"), ascii("init"), ascii("starting")};
+    private static final byte[][] STOPPED_STATUSES = {ascii("stopped"), ascii("exited")};
+    private static final byte[][] FAILED_STATUSES = {ascii("failed"), ascii("dead"), ascii("error")};
+    private static final byte[][] TERMINATED_STATUSES = {ascii("terminated"), ascii("not_found")};
+
+    private KernelCodec() {
+    }
+
+    /**
+     * Payload of a {@link KernelProtocol#MSG_START_PROCESS_BINARY} frame: process ID, name and
+     * command as length-prefixed UTF-8 strings, then the memory limit and CPU shares.
+     * Unlike the text format, names and commands may contain spaces and quotes.
+     */
+    public static Payload startProcess(String processId, String processName, String command,
+                                       long memoryLimit, int cpuShares) {
+        return out -> out.putString(processId)
+                .putString(processName)
+                .putString(command)
+                .putLong(memoryLimit)
+                .putInt(cpuShares);
+    }
+
+    /**
+     * Payload of a legacy {@link KernelProtocol#MSG_START_PROCESS} frame: {@code "<id> <name> <command>"}.
+     */
+    public static Payload startProcessText(String processId, String processName, String command) {
+        return out -> out.putText(processId).putText(" ").putText(processName).putText(" ").putText(command);
+    }
+
+    /**
+     * Payload consisting of the UTF-8 bytes of {@code text}, as used by the legacy text frames.
+     */
+    public static Payload text(String text) {
+        return text.isEmpty() ? EMPTY : out -> out.putText(text);
+    }
+
+    // ---- Reply decoding ----
+
+    public static boolean isOk(ByteBuffer body) {
+        return startsWith(body, OK);
+    }
+
+    public static boolean isError(ByteBuffer body) {
+        return startsWith(body, ERROR);
+    }
+
+    public static boolean isStopped(ByteBuffer body) {
+        return contains(body, PROCESS_STOPPED);
+    }
+
+    /**
+     * Whether the kernel rejected the frame because it does not know its message type.
+     */
+    public static boolean isUnknownMessageType(ByteBuffer body) {
+        return startsWith(body, UNKNOWN_MESSAGE_TYPE);
+    }
+
+    /**
+     * Process ID from a {@code "Process started successfully: <id>"} reply.
+     *
+     * @return the ID the kernel assigned, or {@code null} if the reply is not a start confirmation
+     */
+    public static String startedProcessId(ByteBuffer body) {
+        int start = indexOf(body, PROCESS_STARTED);
+        if (start < 0) {
+            return null;
+        }
+        int end = body.limit();
+        int colon = start + PROCESS_STARTED.length;
+        while (colon < end && body.get(colon) != ':') {
+            colon++;
+        }
+        int from = skipWhitespace(body, colon + 1, end);
+        int to = tokenEnd(body, from, end);
+        return from < to ? string(body, from, to) : "";
+    }
+
+    /**
+     * The whole reply as a string, for logging and error messages.
+     */
+    public static String toString(ByteBuffer body) {
+        return string(body, body.position(), body.limit());
+    }
+
+    /**
+     * Parse a {@link KernelProtocol#MSG_LIST_PROCESSES_BINARY} reply: the number of processes, then
+     * the ID, name, status and language of each as length-prefixed UTF-8 strings. Unlike the
+     * text reply, names may contain spaces.
+     *
+     * @return process status keyed by process ID, or {@code null} if the kernel does not know the frame
+     * @throws IOException if the kernel answered with an error or the reply is truncated
+     */
+    public static Map<String, ProcessStatus> parseBinaryProcessList(ByteBuffer body) throws IOException {
+        if (isUnknownMessageType(body)) {
+            return null;
+        }
+        if (isError(body)) {
+            throw new IOException("Unexpected list response: " + toString(body));
+        }
+        // Same index space as the body, so fields are decoded in place
+        ByteBuffer in = body.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int count = in.getInt();
+            Map<String, ProcessStatus> processes = new HashMap<>(Math.min(count, in.remaining() / 16) * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                int idStart = fieldStart(in);
+                String processId = string(in, idStart, in.position());
+                fieldStart(in); // name
+                int statusStart = fieldStart(in);
+                ProcessStatus status = parseStatus(in, statusStart, in.position());
+                fieldStart(in); // language
+                processes.put(processId, status);
+            }
+            return processes;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated list response", e);
+        }
+    }
+
+    /**
+     * Parse a legacy list-processes reply: a {@code Processes:} header followed by one
+     * {@code "<id> <name> <status> <language>"} line per process. A name containing
+     * whitespace shifts the status, so kernels that answer the binary list are asked for that.
+     *
+     * @return process status keyed by process ID
+     * @throws IOException if the kernel answered with an error
+     */
+    public static Map<String, ProcessStatus> parseProcessList(ByteBuffer body) throws IOException {
+        if (!startsWith(body, LIST_HEADER)) {
+            throw new IOException("Unexpected list response: " + toString(body));
+        }
+        Map<String, ProcessStatus> processes = new HashMap<>();
+        int end = body.limit();
+        int line = body.position() + LIST_HEADER.length;
+        while (line < end) {
+            int lineEnd = line;
+            while (lineEnd < end && body.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int idStart = skipWhitespace(body, line, lineEnd);
+            int idEnd = tokenEnd(body, idStart, lineEnd);
+            if (idStart < idEnd) {
+                int nameEnd = tokenEnd(body, skipWhitespace(body, idEnd, lineEnd), lineEnd);
+                int statusStart = skipWhitespace(body, nameEnd, lineEnd);
+                int statusEnd = tokenEnd(body, statusStart, lineEnd);
+                processes.put(string(body, idStart, idEnd), statusStart < statusEnd
+                        ? parseStatus(body, statusStart, statusEnd) : ProcessStatus.RUNNING);
+            }
+            line = lineEnd + 1;
+        }
+        return processes;
+    }
+
+    /**
+     * Skip over one length-prefixed field.
+     *
+     * @return the index of the field's first byte; the buffer is left positioned after its last
+     */
+    private static int fieldStart(ByteBuffer in) {
+        int length = in.getInt();
+        int start = in.position();
+        in.position(start + length);
+        return start;
+    }
+
+    private static ProcessStatus parseStatus(ByteBuffer body, int from, int to) {
+        if (matchesAny(body, from, to, INIT_STATUSES)) {
+            return ProcessStatus.INIT;
+        }
+        if (matchesAny(body, from, to, STOPPED_STATUSES)) {
+            return ProcessStatus.STOPPED;
+        }
+        if (matchesAny(body, from, to, FAILED_STATUSES)) {
+            return ProcessStatus.FAILED;
+        }
+        if (matchesAny(body, from, to, TERMINATED_STATUSES)) {
+            return ProcessStatus.TERMINATED;
+        }
+        // Listed processes have always been reported as running
+        return ProcessStatus.RUNNING;
+    }
+
+    private static boolean matchesAny(ByteBuffer body, int from, int to, byte[][] candidates) {
+        for (byte[] candidate : candidates) {
+            if (candidate.length == to - from && regionMatchesIgnoreCase(body, from, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatchesIgnoreCase(ByteBuffer body, int from, byte[] lowerCase) {
+        for (int i = 0; i < lowerCase.length; i++) {
+            byte b = body.get(from + i);
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(ByteBuffer body, byte[] prefix) {
+        if (body.remaining() < prefix.length) {
+            return false;
+        }
+        int from = body.position();
+        for (int i = 0; i < prefix.length; i++) {
+            if (body.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(ByteBuffer body, byte[] needle) {
+        return indexOf(body, needle) >= 0;
+    }
+
+    private static int indexOf(ByteBuffer body, byte[] needle) {
+        int last = body.limit() - needle.length;
+        outer:
+        for (int at = body.position(); at <= last; at++) {
+            for (int i = 0; i < needle.length; i++) {
+                if (body.get(at + i) != needle[i]) {
+                    continue outer;
+                }
+            }
+            return at;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(ByteBuffer body, int from, int to) {
+        while (from < to && isWhitespace(body.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int tokenEnd(ByteBuffer body, int from, int to) {
+        while (from < to && !isWhitespace(body.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static String string(ByteBuffer body, int from, int to) {
+        if (body.hasArray()) {
+            return new String(body.array(), body.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[to - from];
+        body.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Little-endian writer over the reusable direct payload buffer of a connection.
+     * The buffer grows when a payload does not fit and is kept for later requests.
+     */
+    public static final class Encoder {
+
+        private ByteBuffer buffer = newBuffer(INITIAL_PAYLOAD_SIZE);
+
+        /**
+         * Start a new payload, discarding the previous one.
+         */
+        Encoder reset() {
+            buffer.clear();
+            return this;
+        }
+
+        /**
+         * The payload written since {@link #reset}, ready to be written to a channel.
+         */
+        ByteBuffer flip() {
+            return buffer.flip();
+        }
+
+        public Encoder putInt(int value) {
+            ensure(Integer.BYTES).putInt(value);
+            return this;
+        }
+
+        public Encoder putLong(long value) {
+            ensure(Long.BYTES).putLong(value);
+            return this;
+        }
+
+        /**
+         * Write a string as its UTF-8 length (4 bytes) followed by its UTF-8 bytes.
+         */
+        public Encoder putString(CharSequence value) {
+            int length = utf8Length(value);
+            ensure(Integer.BYTES + length).putInt(length);
+            putUtf8(value);
+            return this;
+        }
+
+        /**
+         * Write the UTF-8 bytes of a string without a length prefix.
+         */
+        public Encoder putText(CharSequence value) {
+            ensure(utf8Length(value));
+            putUtf8(value);
+            return this;
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = newBuffer(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                larger.put(buffer.flip());
+                buffer = larger;
+            }
+            return buffer;
+        }
+
+        private void putUtf8(CharSequence value) {
+            ByteBuffer out = buffer;
+            for (int i = 0, n = value.length(); i < n; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | c >> 6));
+                    out.put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    out.put((byte) (0xF0 | codePoint >> 18));
+                    out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                    out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                    out.put((byte) (0x80 | codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    out.put((byte) '?'); // unpaired surrogate, replaced as String.getBytes does
+                } else {
+                    out.put((byte) (0xE0 | c >> 12));
+                    out.put((byte) (0x80 | c >> 6 & 0x3F));
+                    out.put((byte) (0x80 | c & 0x3F));
+                }
+            }
+        }
+
+        private static int utf8Length(CharSequence value) {
+            int length = 0;
+            for (int i = 0, n = value.length(); i < n; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        private static ByteBuffer newBuffer(int capacity) {
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
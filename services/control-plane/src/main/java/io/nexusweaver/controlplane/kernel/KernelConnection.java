@@ -0,0 +1,155 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A single persistent TCP connection to a kernel node.
+ * Instances are owned by {@link KernelConnectionPool} and are not thread-safe;
+ * a connection is used by exactly one caller between borrow and release.
+ *
+ * Each connection keeps its own request and reply buffers, so an exchange allocates nothing
+ * once the buffers have grown to fit the largest frames seen. The header and payload go out
+ * in a single gathering write. Replies are read through the socket's stream, which honours
+ * the request timeout, straight into the reply buffer.
+ */
+public class KernelConnection implements Closeable {
+
+    private static final int INITIAL_REPLY_SIZE = 4096;
+    // Larger reply buffers, grown for a big process listing, are dropped rather than kept idle
+    private static final int MAX_RETAINED_REPLY_SIZE = 1 << 20;
+
+    private final String nodeId;
+    private final SocketChannel channel;
+    private final InputStream in;
+    private final ByteBuffer header = ByteBuffer.allocateDirect(KernelProtocol.HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private final KernelCodec.Encoder payload = new KernelCodec.Encoder();
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+    private ByteBuffer reply = newReplyBuffer(INITIAL_REPLY_SIZE);
+
+    private long lastUsedAt;
+    private int exchanges;
+
+    KernelConnection(String nodeId, SocketChannel channel) throws IOException {
+        this.nodeId = nodeId;
+        this.channel = channel;
+        this.in = channel.socket().getInputStream();
+        this.lastUsedAt = System.nanoTime();
+    }
+
+    /**
+     * Send one request frame and read the matching reply frame.
+     *
+     * @param messageType the kernel message type
+     * @param request writes the request payload
+     * @return the reply payload, valid until the next exchange or until the connection is released
+     */
+    public ByteBuffer exchange(int messageType, KernelCodec.Payload request) throws IOException {
+        request.writeTo(payload.reset());
+        ByteBuffer body = payload.flip();
+
+        header.clear();
+        header.putInt(messageType).putInt(body.remaining()).flip();
+        frame[0] = header;
+        frame[1] = body;
+        try {
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            // The kernel never saw a complete frame
+            throw new FrameNotSentException("Failed to send frame to node " + nodeId + ": " + e.getMessage(), e);
+        }
+
+        ByteBuffer response = readFrame();
+        exchanges++;
+        lastUsedAt = System.nanoTime();
+        return response;
+    }
+
+    /**
+     * Send a text frame and return the reply as a string.
+     */
+    public String exchange(int messageType, String data) throws IOException {
+        return KernelCodec.toString(exchange(messageType, KernelCodec.text(data)));
+    }
+
+    private ByteBuffer readFrame() throws IOException {
+        if (reply.capacity() > MAX_RETAINED_REPLY_SIZE) {
+            reply = newReplyBuffer(INITIAL_REPLY_SIZE);
+        }
+        reply.clear();
+        fill(KernelProtocol.HEADER_SIZE);
+        // The type at offset 0 echoes the request type
+        int length = reply.getInt(4);
+        if (length < 0) {
+            throw new IOException("Invalid reply length " + length + " from node " + nodeId);
+        }
+        int frameSize = KernelProtocol.HEADER_SIZE + length;
+        if (frameSize > reply.capacity()) {
+            ByteBuffer larger = newReplyBuffer(frameSize);
+            larger.put(reply.flip());
+            reply = larger;
+        }
+        fill(frameSize);
+        return reply.limit(frameSize).position(KernelProtocol.HEADER_SIZE);
+    }
+
+    private void fill(int bytes) throws IOException {
+        byte[] array = reply.array();
+        while (reply.position() < bytes) {
+            int read = in.read(array, reply.position(), reply.capacity() - reply.position());
+            if (read < 0) {
+                throw new EOFException("Connection to node " + nodeId + " closed by peer");
+            }
+            reply.position(reply.position() + read);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Whether this connection has already carried at least one exchange.
+     */
+    public boolean isReused() {
+        return exchanges > 0;
+    }
+
+    /**
+     * Nanoseconds elapsed since the last completed exchange.
+     */
+    public long idleNanos() {
+        return System.nanoTime() - lastUsedAt;
+    }
+
+    public boolean isOpen() {
+        return channel.isOpen() && channel.isConnected()
+                && !channel.socket().isInputShutdown() && !channel.socket().isOutputShutdown();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing useful to do on close
+        }
+    }
+
+    private static ByteBuffer newReplyBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
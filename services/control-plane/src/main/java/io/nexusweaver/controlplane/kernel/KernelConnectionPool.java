@@ -0,0 +1,189 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-node pool of persistent kernel TCP connections.
+ *
+ * Each node has at most {@code maxConnectionsPerNode} connections leased at once;
+ * callers beyond that wait up to {@code connectionTimeout} for a lease. Idle
+ * connections are reused most-recently-used first, probed with a health check
+ * when they have been idle for longer than {@code validateAfterIdle}, and closed
+ * by a background sweep once idle for longer than {@code idleTimeout}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "nexusweaver.control-plane.kernel", name = "transport", havingValue = "tcp", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class KernelConnectionPool {
+
+    private final NexusWeaverProperties properties;
+
+    private final Map<String, NodePool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Lease a connection to the given node, opening a new one if no idle connection is available.
+     *
+     * @param nodeId the node ID
+     * @return a connection that must be handed back via {@link #release} or {@link #invalidate}
+     */
+    public KernelConnection borrow(String nodeId) throws IOException {
+        NodePool pool = pools.computeIfAbsent(nodeId, id -> new NodePool(kernel().getMaxConnectionsPerNode()));
+        try {
+            if (!pool.leases.tryAcquire(kernel().getConnectionTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for a connection to node " + nodeId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for a connection to node " + nodeId, e);
+        }
+
+        try {
+            KernelConnection connection;
+            while ((connection = pool.idle.pollFirst()) != null) {
+                if (isUsable(connection)) {
+                    return connection;
+                }
+                connection.close();
+            }
+            return open(nodeId);
+        } catch (IOException | RuntimeException e) {
+            pool.leases.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a healthy connection to the pool for reuse.
+     */
+    public void release(KernelConnection connection) {
+        NodePool pool = pools.get(connection.getNodeId());
+        if (pool == null) {
+            connection.close();
+            return;
+        }
+        if (connection.isOpen()) {
+            pool.idle.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+        pool.leases.release();
+    }
+
+    /**
+     * Close a connection that failed mid-exchange instead of returning it to the pool.
+     */
+    public void invalidate(KernelConnection connection) {
+        connection.close();
+        NodePool pool = pools.get(connection.getNodeId());
+        if (pool != null) {
+            pool.leases.release();
+        }
+    }
+
+    /**
+     * Close idle connections that have not been used within {@code idleTimeout}.
+     */
+    @Scheduled(fixedDelayString = "${nexusweaver.control-plane.kernel.eviction-interval:30000}")
+    public void evictIdleConnections() {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(kernel().getIdleTimeout());
+        int evicted = 0;
+        for (NodePool pool : pools.values()) {
+            // Oldest connections sit at the tail of the deque
+            Iterator<KernelConnection> it = pool.idle.descendingIterator();
+            while (it.hasNext()) {
+                KernelConnection connection = it.next();
+                if (connection.idleNanos() > idleTimeoutNanos || !connection.isOpen()) {
+                    if (pool.idle.removeFirstOccurrence(connection)) {
+                        connection.close();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle kernel connections", evicted);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.values().forEach(pool -> {
+            KernelConnection connection;
+            while ((connection = pool.idle.pollFirst()) != null) {
+                connection.close();
+            }
+        });
+        pools.clear();
+    }
+
+    private boolean isUsable(KernelConnection connection) {
+        if (!connection.isOpen()) {
+            return false;
+        }
+        if (connection.idleNanos() < TimeUnit.MILLISECONDS.toNanos(kernel().getValidateAfterIdle())) {
+            return true;
+        }
+        try {
+            return KernelCodec.isOk(connection.exchange(KernelProtocol.MSG_HEALTH_CHECK, KernelCodec.EMPTY));
+        } catch (IOException e) {
+            log.debug("Discarding stale connection to node {}: {}", connection.getNodeId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private KernelConnection open(String nodeId) throws IOException {
+        // For now, assume nodeId is the hostname and use default port
+        String host = nodeId.equals("localhost") ? "127.0.0.1" : nodeId;
+        int port = kernel().getDefaultPort();
+
+        SocketChannel channel = SocketChannel.open();
+        try {
+            Socket socket = channel.socket();
+            socket.setKeepAlive(kernel().isKeepAlive());
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), kernel().getConnectionTimeout());
+            socket.setSoTimeout(kernel().getRequestTimeout());
+            log.debug("Opened kernel connection to {}:{}", host, port);
+            return new KernelConnection(nodeId, channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private NexusWeaverProperties.Kernel kernel() {
+        return properties.getKernel();
+    }
+
+    private static final class NodePool {
+        private final Semaphore leases;
+        private final ConcurrentLinkedDeque<KernelConnection> idle = new ConcurrentLinkedDeque<>();
+
+        private NodePool(int maxConnections) {
+            this.leases = new Semaphore(maxConnections, true);
+        }
+    }
+}
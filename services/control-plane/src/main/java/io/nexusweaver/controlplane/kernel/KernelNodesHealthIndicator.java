@@ -0,0 +1,52 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the tracked health of every kernel node under {@code /actuator/health/kernelNodes}.
+ * DOWN only when no node can take calls; a partial outage is reported as UP with the
+ * affected nodes in the details.
+ */
+@Component
+@RequiredArgsConstructor
+public class KernelNodesHealthIndicator implements HealthIndicator {
+
+    private final NodeHealthTracker tracker;
+
+    @Override
+    public Health health() {
+        List<NodeHealthTracker.NodeHealth> nodes = tracker.getNodes();
+        Map<String, Object> details = new LinkedHashMap<>();
+        long available = 0;
+        for (NodeHealthTracker.NodeHealth node : nodes) {
+            if (node.state() != NodeHealthTracker.State.OPEN) {
+                available++;
+            }
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("state", node.state());
+            detail.put("since", node.since());
+            detail.put("consecutiveFailures", node.consecutiveFailures());
+            if (node.lastError() != null) {
+                detail.put("lastError", node.lastError());
+            }
+            details.put(node.nodeId(), detail);
+        }
+        Health.Builder health = nodes.isEmpty() || available > 0 ? Health.up() : Health.down();
+        return health.withDetail("available", available)
+                .withDetail("total", nodes.size())
+                .withDetail("nodes", details)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+/**
+ * Constants of the legacy kernel TCP protocol.
+ * Every frame is an 8-byte little-endian header (message type, payload length)
+ * followed by the payload. See services/kernel-go/tcp_server.go.
+ * Payloads are encoded and replies decoded by {@link KernelCodec}.
+ */
+public final class KernelProtocol {
+
+    public static final int HEADER_SIZE = 8;
+
+    // Message types matching kernel protocol
+    public static final int MSG_START_PROCESS = 1;
+    public static final int MSG_STOP_PROCESS = 2;
+    public static final int MSG_GET_PROCESS = 3;
+    public static final int MSG_LIST_PROCESSES = 4;
+    public static final int MSG_HEALTH_CHECK = 5;
+    // Start with a length-prefixed binary payload; older kernels answer "ERROR: Unknown message type"
+    public static final int MSG_START_PROCESS_BINARY = 6;
+    // List with length-prefixed fields in the reply; older kernels answer "ERROR: Unknown message type"
+    public static final int MSG_LIST_PROCESSES_BINARY = 7;
+
+    private KernelProtocol() {
+    }
+
+    /**
+     * Whether sending a message twice has the same effect as sending it once. Only these are
+     * resent when a connection drops after the frame went out: a start the kernel acted on before
+     * the drop would otherwise run a second process.
+     */
+    public static boolean isIdempotent(int messageType) {
+        return switch (messageType) {
+            case MSG_STOP_PROCESS, MSG_GET_PROCESS, MSG_LIST_PROCESSES, MSG_LIST_PROCESSES_BINARY,
+                 MSG_HEALTH_CHECK -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import io.nexusweaver.controlplane.config.KernelExecutorConfig;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.metrics.KernelMetrics;
+import io.nexusweaver.controlplane.scheduler.NodeRegistry;
+import io.nexusweaver.controlplane.service.KernelService;
+import io.nexusweaver.controlplane.service.impl.CircuitBreakingKernelService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Health state of every kernel node, fed by background probes and the outcome of real calls.
+ *
+ * A node is HEALTHY until a call or probe fails, DEGRADED while failures are below
+ * {@code circuitFailureThreshold} in a row, and OPEN once they reach it. Calls to an OPEN node
+ * fail fast; only probes keep trying it. A successful probe lets calls through again on trial,
+ * and the first failure during the trial reopens the circuit. After
+ * {@code circuitRecoveryThreshold} successes in a row the node is HEALTHY again.
+ */
+@Component
+@Slf4j
+public class NodeHealthTracker {
+
+    public enum State {
+        /**
+         * Calls and probes succeed
+         */
+        HEALTHY,
+
+        /**
+         * Recent calls or probes failed, or the node is on trial after an open circuit
+         */
+        DEGRADED,
+
+        /**
+         * Too many failures in a row; calls fail fast until a probe succeeds
+         */
+        OPEN
+    }
+
+    /**
+     * Health of one node at a point in time.
+     *
+     * @param since when the node entered its current state
+     * @param lastError message of the most recent failure, if any
+     */
+    public record NodeHealth(String nodeId, State state, int consecutiveFailures, Instant since, String lastError) {
+    }
+
+    private final KernelService transport;
+    private final NodeRegistry nodeRegistry;
+    private final NexusWeaverProperties properties;
+    private final Executor probeExecutor;
+    private final KernelMetrics metrics;
+
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    public NodeHealthTracker(@Qualifier(CircuitBreakingKernelService.KERNEL_TRANSPORT) KernelService transport,
+                             NodeRegistry nodeRegistry, NexusWeaverProperties properties,
+                             @Qualifier(KernelExecutorConfig.KERNEL_PROBE_EXECUTOR) Executor probeExecutor,
+                             KernelMetrics metrics) {
+        this.transport = transport;
+        this.nodeRegistry = nodeRegistry;
+        this.properties = properties;
+        this.probeExecutor = probeExecutor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Whether calls to the node may go through. Nodes never seen before are assumed healthy.
+     */
+    public boolean isAvailable(String nodeId) {
+        Node node = nodes.get(nodeId);
+        return node == null || node.state() != State.OPEN;
+    }
+
+    public State getState(String nodeId) {
+        Node node = nodes.get(nodeId);
+        return node != null ? node.state() : State.HEALTHY;
+    }
+
+    /**
+     * Health of every node placed on or called so far.
+     */
+    public List<NodeHealth> getNodes() {
+        return nodes.values().stream().map(Node::snapshot).toList();
+    }
+
+    public void recordSuccess(String nodeId) {
+        node(nodeId).onSuccess();
+    }
+
+    public void recordFailure(String nodeId, Throwable error) {
+        node(nodeId).onFailure(error);
+    }
+
+    /**
+     * Probe every known node that has no probe in flight.
+     */
+    @Scheduled(fixedDelayString = "${nexusweaver.control-plane.kernel.health-probe-interval:5000}")
+    public void probe() {
+        nodeRegistry.capacities().forEach(capacity -> node(capacity.id()));
+        for (Node node : nodes.values()) {
+            if (node.probing.compareAndSet(false, true)) {
+                try {
+                    probeExecutor.execute(() -> probe(node));
+                } catch (RejectedExecutionException e) {
+                    node.probing.set(false);
+                }
+            }
+        }
+    }
+
+    private void probe(Node node) {
+        long started = System.nanoTime();
+        try {
+            boolean healthy = transport.isNodeHealthy(node.nodeId);
+            metrics.recordCall(node.nodeId, KernelMetrics.Call.HEALTH_CHECK, System.nanoTime() - started);
+            if (healthy) {
+                node.onSuccess();
+            } else {
+                metrics.recordFailure(node.nodeId, KernelMetrics.Call.HEALTH_CHECK, KernelMetrics.Failure.UNREACHABLE);
+                node.onFailure(new IllegalStateException("Health check failed"));
+            }
+        } catch (RuntimeException e) {
+            metrics.recordFailure(node.nodeId, KernelMetrics.Call.HEALTH_CHECK, KernelMetrics.Failure.UNREACHABLE);
+            node.onFailure(e);
+        } finally {
+            node.probing.set(false);
+        }
+    }
+
+    private Node node(String nodeId) {
+        return nodes.computeIfAbsent(nodeId, Node::new);
+    }
+
+    private final class Node {
+        private final String nodeId;
+        private final AtomicBoolean probing = new AtomicBoolean();
+        private State state = State.HEALTHY;
+        private Instant since = Instant.now();
+        private int consecutiveFailures;
+        private int consecutiveSuccesses;
+        private boolean trial;
+        private String lastError;
+
+        private Node(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        private synchronized State state() {
+            return state;
+        }
+
+        private synchronized NodeHealth snapshot() {
+            return new NodeHealth(nodeId, state, consecutiveFailures, since, lastError);
+        }
+
+        private synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            consecutiveSuccesses++;
+            if (state == State.OPEN) {
+                trial = true;
+                transition(State.DEGRADED);
+            } else if (state == State.DEGRADED
+                    && consecutiveSuccesses >= properties.getKernel().getCircuitRecoveryThreshold()) {
+                trial = false;
+                transition(State.HEALTHY);
+            }
+        }
+
+        private synchronized void onFailure(Throwable error) {
+            consecutiveSuccesses = 0;
+            consecutiveFailures++;
+            lastError = error.getMessage();
+            if (trial || consecutiveFailures >= properties.getKernel().getCircuitFailureThreshold()) {
+                trial = false;
+                transition(State.OPEN);
+            } else if (state == State.HEALTHY) {
+                transition(State.DEGRADED);
+            }
+        }
+
+        private void transition(State next) {
+            if (state == next) {
+                return;
+            }
+            switch (next) {
+                case HEALTHY -> log.info("Kernel node {} is healthy again", nodeId);
+                case DEGRADED -> log.warn(state == State.OPEN
+                        ? "Kernel node {} answered a probe, letting calls through on trial"
+                        : "Kernel node {} is degraded: {}", nodeId, lastError);
+                case OPEN -> log.warn("Kernel node {} is unavailable after {} failures, failing calls fast: {}",
+                        nodeId, consecutiveFailures, lastError);
+            }
+            state = next;
+            since = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.kernel;
+
+import io.nexusweaver.controlplane.service.KernelService.ProcessStatus;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived per-node snapshot of the processes a kernel runs, keyed by process ID.
+ *
+ * A snapshot is reused until it is older than the TTL. When it expires, the first caller
+ * for that node fetches a new listing and concurrent callers for the same node wait for
+ * that same fetch instead of issuing their own.
+ *
+ * Each node has an invalidation epoch, bumped on every start or stop. A snapshot is stamped
+ * with the epoch and time at which its fetch began; one whose fetch overlapped an invalidation
+ * is never stored, and a caller is only handed a snapshot fetched after every invalidation it
+ * could have seen, so a listing taken before a start cannot report the new process as missing.
+ */
+public class ProcessSnapshotCache {
+
+    /**
+     * Fetches the full process listing of a node.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Map<String, ProcessStatus> load(String nodeId) throws IOException;
+    }
+
+    private record Snapshot(Map<String, ProcessStatus> processes, long takenAt, long epoch) {
+    }
+
+    private final long ttlNanos;
+    private final Loader loader;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Snapshot>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> epochs = new ConcurrentHashMap<>();
+
+    public ProcessSnapshotCache(long ttlMillis, Loader loader) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.loader = loader;
+    }
+
+    /**
+     * Processes of a node, from a snapshot no older than the TTL and fetched after the
+     * node's last invalidation before this call.
+     *
+     * @param nodeId the node ID
+     * @return process status keyed by process ID
+     */
+    public Map<String, ProcessStatus> get(String nodeId) throws IOException {
+        AtomicLong epoch = epochOf(nodeId);
+        long since = epoch.get();
+        while (true) {
+            Snapshot snapshot = snapshots.get(nodeId);
+            if (isFresh(snapshot) && snapshot.epoch() >= since) {
+                return snapshot.processes();
+            }
+
+            CompletableFuture<Snapshot> fetch = new CompletableFuture<>();
+            CompletableFuture<Snapshot> existing = inFlight.putIfAbsent(nodeId, fetch);
+            snapshot = existing != null ? await(existing) : fetch(nodeId, epoch, fetch);
+            if (snapshot.epoch() >= since) {
+                return snapshot.processes();
+            }
+            // The shared fetch began before an invalidation this caller must see; fetch again
+        }
+    }
+
+    /**
+     * Drop the snapshot of a node, e.g. after starting or stopping one of its processes.
+     * Fetches already running are not stored or handed to callers arriving after this.
+     */
+    public void invalidate(String nodeId) {
+        epochOf(nodeId).incrementAndGet();
+        snapshots.remove(nodeId);
+    }
+
+    private Snapshot fetch(String nodeId, AtomicLong epoch, CompletableFuture<Snapshot> fetch) throws IOException {
+        try {
+            long startedEpoch = epoch.get();
+            // Another caller may have refreshed the node between our check and winning the fetch
+            Snapshot snapshot = snapshots.get(nodeId);
+            if (!isFresh(snapshot) || snapshot.epoch() < startedEpoch) {
+                long startedAt = System.nanoTime();
+                snapshot = new Snapshot(Map.copyOf(loader.load(nodeId)), startedAt, startedEpoch);
+                if (epoch.get() == startedEpoch) {
+                    snapshots.put(nodeId, snapshot);
+                    // An invalidation between the check and the put must still win
+                    if (epoch.get() != startedEpoch) {
+                        snapshots.remove(nodeId, snapshot);
+                    }
+                }
+            }
+            fetch.complete(snapshot);
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(nodeId, fetch);
+        }
+    }
+
+    private AtomicLong epochOf(String nodeId) {
+        return epochs.computeIfAbsent(nodeId, id -> new AtomicLong());
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null && System.nanoTime() - snapshot.takenAt() < ttlNanos;
+    }
+
+    private static Snapshot await(CompletableFuture<Snapshot> fetch) throws IOException {
+        try {
+            return fetch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.nexusweaver.controlplane.config.DeploymentExecutorConfig;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.event.DeploymentEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time spent by deployments in each {@link DeploymentStatus}, and the load on the deployment pools.
+ *
+ * Phases a deployment passes through on its own, such as waiting in PENDING or rolling out in
+ * DEPLOYING, are timed from the {@link DeploymentEvent}s that enter and leave them. TERMINATING
+ * is timed by the deployment engine via {@link #recordPhase}, from when the stop or delete was
+ * requested, and only there.
+ * Timers are tagged by phase and the status the phase ended in.
+ */
+@Component
+public class DeploymentMetrics {
+
+    static final String PHASE = "nexusweaver.deployment.phase";
+
+    /**
+     * Statuses a deployment leaves on its own; the time spent in any other status is not tracked
+     * here. TERMINATING is left out: the engine times it from the request, and counting it here
+     * too would record every stop twice.
+     */
+    private static final Set<DeploymentStatus> TRANSIENT_STATUSES =
+            EnumSet.of(DeploymentStatus.PENDING, DeploymentStatus.DEPLOYING);
+
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(100), Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5),
+            Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(2),
+            Duration.ofMinutes(5)
+    };
+
+    private static final int STATUS_COUNT = DeploymentStatus.values().length;
+
+    private final MeterRegistry registry;
+    private final Timer[] phaseTimers = new Timer[STATUS_COUNT * STATUS_COUNT];
+    private final Map<UUID, Long> phaseStartedAt = new ConcurrentHashMap<>();
+    private final AtomicLong commandsDue = new AtomicLong();
+
+    public DeploymentMetrics(
+            MeterRegistry registry,
+            @Qualifier(DeploymentExecutorConfig.DEPLOYMENT_EXECUTOR) ThreadPoolTaskExecutor deploymentExecutor,
+            @Qualifier(DeploymentExecutorConfig.SERVICE_START_EXECUTOR) ThreadPoolTaskExecutor serviceStartExecutor) {
+        this.registry = registry;
+        Gauge.builder("nexusweaver.deployments.in.flight", deploymentExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Deployments being rolled out")
+                .register(registry);
+        // Commands wait in the outbox rather than the executor queue, which the dispatcher never fills
+        Gauge.builder("nexusweaver.deployments.queued", commandsDue, AtomicLong::get)
+                .description("Deployment commands due in the outbox, waiting for a rollout worker")
+                .register(registry);
+        Gauge.builder("nexusweaver.services.starts.in.flight", serviceStartExecutor,
+                        ThreadPoolTaskExecutor::getActiveCount)
+                .description("Service starts waiting on a kernel")
+                .register(registry);
+        Gauge.builder("nexusweaver.services.starts.queued", serviceStartExecutor, DeploymentMetrics::queueDepth)
+                .description("Service starts waiting for a start worker")
+                .register(registry);
+    }
+
+    /**
+     * Record a phase timed by the caller.
+     *
+     * @param phase the status the deployment was in
+     * @param outcome the status the phase ended in
+     * @param nanos time spent in the phase
+     */
+    public void recordPhase(DeploymentStatus phase, DeploymentStatus outcome, long nanos) {
+        int index = phase.ordinal() * STATUS_COUNT + outcome.ordinal();
+        Timer timer = phaseTimers[index];
+        if (timer == null) {
+            // Racing threads get the same meter back from the registry
+            timer = phaseTimers[index] = Timer.builder(PHASE)
+                    .description("Time deployments spend in each status")
+                    .tag("phase", phase.name())
+                    .tag("outcome", outcome.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .serviceLevelObjectives(SLOS)
+                    .register(registry);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the number of due commands in the outbox, as last counted by the dispatcher.
+     */
+    public void recordCommandsDue(long count) {
+        commandsDue.set(count);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeploymentEvent(DeploymentEvent event) {
+        long now = System.nanoTime();
+        Long startedAt = phaseStartedAt.remove(event.deploymentId());
+        if (startedAt != null && event.type() == DeploymentEvent.Type.STATUS_CHANGED) {
+            recordPhase(event.previousStatus(), event.status(), now - startedAt);
+        }
+        if (event.type() != DeploymentEvent.Type.DELETED && TRANSIENT_STATUSES.contains(event.status())) {
+            phaseStartedAt.put(event.deploymentId(), now);
+        }
+    }
+
+    private static int queueDepth(ThreadPoolTaskExecutor executor) {
+        return executor.getThreadPoolExecutor().getQueue().size();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and error meters of kernel calls, tagged by node and call type.
+ *
+ * Meters are created the first time a node and call type are seen and then looked up
+ * by array index, so recording a call allocates nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class KernelMetrics {
+
+    static final String CALLS = "nexusweaver.kernel.calls";
+    static final String ERRORS = "nexusweaver.kernel.errors";
+
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30)
+    };
+
+    /**
+     * Kernel call types, one per kernel message.
+     */
+    public enum Call {
+        START_PROCESS("start_process"),
+        STOP_PROCESS("stop_process"),
+        GET_PROCESS("get_process"),
+        LIST_PROCESSES("list_processes"),
+        HEALTH_CHECK("health_check"),
+        STREAM_LOGS("stream_logs");
+
+        private final String tag;
+
+        Call(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Why a kernel call failed.
+     */
+    public enum Failure {
+        /**
+         * The node could not be reached or did not answer in time
+         */
+        UNREACHABLE("unreachable"),
+
+        /**
+         * The call was not attempted because the node's circuit is open
+         */
+        REJECTED("rejected"),
+
+        /**
+         * The kernel answered with an error
+         */
+        ERROR("error"),
+
+        /**
+         * The caller cancelled the call, e.g. when its deployment ran past the timeout
+         */
+        CANCELLED("cancelled");
+
+        private final String tag;
+
+        Failure(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final int CALL_COUNT = Call.values().length;
+    private static final int FAILURE_COUNT = Failure.values().length;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, NodeMeters> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Record how long a call that reached the node took, whether it succeeded or not.
+     */
+    public void recordCall(String nodeId, Call call, long nanos) {
+        NodeMeters meters = meters(nodeId);
+        Timer timer = meters.timers[call.ordinal()];
+        if (timer == null) {
+            // Racing threads get the same meter back from the registry
+            timer = meters.timers[call.ordinal()] = Timer.builder(CALLS)
+                    .description("Latency of kernel calls")
+                    .tag("node", nodeId)
+                    .tag("type", call.tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .serviceLevelObjectives(SLOS)
+                    .register(registry);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFailure(String nodeId, Call call, Failure failure) {
+        NodeMeters meters = meters(nodeId);
+        int index = call.ordinal() * FAILURE_COUNT + failure.ordinal();
+        Counter counter = meters.failures[index];
+        if (counter == null) {
+            counter = meters.failures[index] = Counter.builder(ERRORS)
+                    .description("Failed kernel calls")
+                    .tag("node", nodeId)
+                    .tag("type", call.tag)
+                    .tag("reason", failure.tag)
+                    .register(registry);
+        }
+        counter.increment();
+    }
+
+    private NodeMeters meters(String nodeId) {
+        NodeMeters meters = nodes.get(nodeId);
+        return meters != null ? meters : nodes.computeIfAbsent(nodeId, id -> new NodeMeters());
+    }
+
+    private static final class NodeMeters {
+        private final Timer[] timers = new Timer[CALL_COUNT];
+        private final Counter[] failures = new Counter[CALL_COUNT * FAILURE_COUNT];
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-application deployment statistics computed by an aggregate query.
+ */
+public interface ApplicationDeploymentStats {
+
+    UUID getApplicationId();
+
+    long getDeploymentCount();
+
+    long getActiveDeployments();
+
+    LocalDateTime getLastDeployedAt();
+}
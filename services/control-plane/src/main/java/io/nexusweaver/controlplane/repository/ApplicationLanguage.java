@@ -0,0 +1,20 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import java.util.UUID;
+
+/**
+ * A service language used by an application, with the number of its deployments using it.
+ */
+public interface ApplicationLanguage {
+
+    UUID getApplicationId();
+
+    String getLanguage();
+
+    long getDeploymentCount();
+}
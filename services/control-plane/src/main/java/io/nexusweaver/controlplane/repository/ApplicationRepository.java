@@ -6,9 +6,16 @@
 package io.nexusweaver.controlplane.repository;
 
 import io.nexusweaver.controlplane.domain.entity.Application;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,4 +32,30 @@ public interface ApplicationRepository extends JpaRepository<Application, UUID>
      * @return the application if found
      */
     Optional<Application> findByName(String name);
-}
\ No newline at end of file
+    
+    /**
+     * Find the applications with any of the given names in one query.
+     *
+     * @param names the application names
+     * @return the applications found
+     */
+    List<Application> findByNameIn(Collection<String> names);
+    
+    /**
+     * Load an application and lock its row until the transaction ends, bypassing the cache.
+     * Serializes deleting an application with adding or removing its deployments.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Application a WHERE a.id = :id")
+    Optional<Application> findByIdForUpdate(@Param("id") UUID id);
+    
+    /**
+     * Delete an application without loading it or cascading to its deployments,
+     * which must have been deleted first.
+     *
+     * @return the number of applications deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Application a WHERE a.id = :id")
+    int bulkDeleteById(@Param("id") UUID id);
+}
@@ -0,0 +1,42 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import io.nexusweaver.controlplane.domain.entity.DeploymentCommand;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the deployment command outbox.
+ */
+@Repository
+public interface DeploymentCommandRepository extends JpaRepository<DeploymentCommand, UUID> {
+    
+    /**
+     * Lock up to {@code limit} due commands, oldest first, skipping rows another dispatcher
+     * has locked. A command is only due once every earlier command of its deployment is gone,
+     * so the commands of one deployment run strictly in order.
+     * Must run in a transaction; the caller leases the commands before committing.
+     */
+    @Query(value = "SELECT * FROM nexusweaver.deployment_commands c " +
+                   "WHERE c.available_at <= :now " +
+                   "AND NOT EXISTS (SELECT 1 FROM nexusweaver.deployment_commands e " +
+                   "WHERE e.deployment_id = c.deployment_id AND e.created_at < c.created_at) " +
+                   "ORDER BY c.available_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<DeploymentCommand> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * Count the commands waiting to be claimed. Leased commands are not due until their lease runs out.
+     */
+    @Query("SELECT COUNT(c) FROM DeploymentCommand c WHERE c.availableAt <= :now")
+    long countDue(@Param("now") LocalDateTime now);
+}
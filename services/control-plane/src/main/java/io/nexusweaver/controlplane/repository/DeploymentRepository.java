@@ -7,18 +7,29 @@ package io.nexusweaver.controlplane.repository;
 
 import io.nexusweaver.controlplane.domain.entity.Deployment;
 import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for Deployment entities.
  */
 @Repository
-public interface DeploymentRepository extends JpaRepository<Deployment, UUID> {
+public interface DeploymentRepository extends JpaRepository<Deployment, UUID>, JpaSpecificationExecutor<Deployment> {
+    
+    String STREAM_FETCH_SIZE = "500";
     
     /**
      * Find deployments by application ID.
@@ -40,4 +51,67 @@ public interface DeploymentRepository extends JpaRepository<Deployment, UUID> {
      */
     @Query("SELECT d FROM Deployment d WHERE d.status NOT IN ('TERMINATED', 'FAILED')")
     List<Deployment> findActiveDeployments();
-}
\ No newline at end of file
+    
+    /**
+     * Version of one deployment and its services, without loading either.
+     * Versions of listing pages are read with {@link DeploymentSpecifications#versions}.
+     */
+    @Query("SELECT new io.nexusweaver.controlplane.repository.DeploymentVersion(" +
+           "d.id, d.createdAt, d.lockVersion, COUNT(s.id), COALESCE(SUM(s.lockVersion), 0L)) " +
+           "FROM Deployment d LEFT JOIN d.services s WHERE d.id = :id " +
+           "GROUP BY d.id, d.createdAt, d.lockVersion")
+    Optional<DeploymentVersion> findVersionById(@Param("id") UUID id);
+    
+    /**
+     * Stream every deployment with its application and services, oldest first.
+     * Rows are pulled from the database {@value #STREAM_FETCH_SIZE} at a time; the caller
+     * must consume the stream inside a transaction and close it.
+     */
+    @Query("SELECT d FROM Deployment d JOIN FETCH d.application LEFT JOIN FETCH d.services " +
+           "ORDER BY d.createdAt, d.id")
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Deployment> streamAllWithServices();
+    
+    /**
+     * Aggregate deployment statistics for every application in one query.
+     *
+     * @param activeStatuses statuses counted as active
+     */
+    @Query("SELECT d.application.id AS applicationId, COUNT(d) AS deploymentCount, " +
+           "SUM(CASE WHEN d.status IN :activeStatuses THEN 1 ELSE 0 END) AS activeDeployments, " +
+           "MAX(d.createdAt) AS lastDeployedAt " +
+           "FROM Deployment d GROUP BY d.application.id")
+    List<ApplicationDeploymentStats> findDeploymentStats(
+            @Param("activeStatuses") Collection<DeploymentStatus> activeStatuses);
+    
+    /**
+     * Aggregate deployment statistics for the given applications in one query.
+     *
+     * @param applicationIds the applications to aggregate
+     * @param activeStatuses statuses counted as active
+     */
+    @Query("SELECT d.application.id AS applicationId, COUNT(d) AS deploymentCount, " +
+           "SUM(CASE WHEN d.status IN :activeStatuses THEN 1 ELSE 0 END) AS activeDeployments, " +
+           "MAX(d.createdAt) AS lastDeployedAt " +
+           "FROM Deployment d WHERE d.application.id IN :applicationIds GROUP BY d.application.id")
+    List<ApplicationDeploymentStats> findDeploymentStatsByApplicationIdIn(
+            @Param("applicationIds") Collection<UUID> applicationIds,
+            @Param("activeStatuses") Collection<DeploymentStatus> activeStatuses);
+    
+    /**
+     * Whether an application has any deployments left.
+     */
+    boolean existsByApplicationId(UUID applicationId);
+    
+    /**
+     * Delete a deployment without loading it. Its services must have been deleted first.
+     *
+     * @return the number of deployments deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Deployment d WHERE d.id = :id")
+    int bulkDeleteById(@Param("id") UUID id);
+}
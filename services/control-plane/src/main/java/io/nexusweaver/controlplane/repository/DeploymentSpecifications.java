@@ -0,0 +1,90 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import io.nexusweaver.controlplane.domain.entity.Deployment;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.Service;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Query filters for deployment listings, and the versions of a listing page.
+ */
+public final class DeploymentSpecifications {
+
+    private DeploymentSpecifications() {
+    }
+
+    /**
+     * Match deployments by application and status; {@code null} arguments do not filter.
+     */
+    public static Specification<Deployment> matching(UUID applicationId, DeploymentStatus status) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(2);
+            if (applicationId != null) {
+                predicates.add(cb.equal(root.get("application").get("id"), applicationId));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Match deployments after a position in {@code (createdAt, id)} order, as a keyset scroll does.
+     */
+    public static Specification<Deployment> after(LocalDateTime createdAt, UUID id, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> rowCreatedAt = root.get("createdAt");
+            Path<UUID> rowId = root.get("id");
+            return direction.isAscending()
+                    ? cb.or(cb.greaterThan(rowCreatedAt, createdAt),
+                            cb.and(cb.equal(rowCreatedAt, createdAt), cb.greaterThan(rowId, id)))
+                    : cb.or(cb.lessThan(rowCreatedAt, createdAt),
+                            cb.and(cb.equal(rowCreatedAt, createdAt), cb.lessThan(rowId, id)));
+        };
+    }
+
+    /**
+     * Versions of the first {@code limit} deployments matching a filter in {@code (createdAt, id)}
+     * order, computed with one aggregate query. Built with the criteria API so that absent
+     * filters are left out of the SQL rather than bound as untyped null parameters.
+     */
+    public static List<DeploymentVersion> versions(EntityManager entityManager, Specification<Deployment> filter,
+                                                   Sort.Direction direction, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DeploymentVersion> query = cb.createQuery(DeploymentVersion.class);
+        Root<Deployment> deployment = query.from(Deployment.class);
+        Join<Deployment, Service> service = deployment.join("services", JoinType.LEFT);
+        Path<UUID> id = deployment.get("id");
+        Path<LocalDateTime> createdAt = deployment.get("createdAt");
+        Path<Long> lockVersion = deployment.get("lockVersion");
+        query.select(cb.construct(DeploymentVersion.class, id, createdAt, lockVersion,
+                        cb.count(service),
+                        cb.coalesce(cb.sum(service.<Long>get("lockVersion")), 0L)))
+                .where(filter.toPredicate(deployment, query, cb))
+                .groupBy(id, createdAt, lockVersion)
+                .orderBy(direction.isAscending()
+                        ? List.of(cb.asc(createdAt), cb.asc(id))
+                        : List.of(cb.desc(createdAt), cb.desc(id)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lock versions of a deployment and its services, read by an aggregate query without loading
+ * any entity. Every update bumps a lock version, and adding or removing a service changes the count.
+ *
+ * @param createdAt creation time of the deployment, to continue a listing after it
+ */
+public record DeploymentVersion(UUID id, LocalDateTime createdAt, long lockVersion,
+                                long serviceCount, long serviceLockVersions) {
+
+    /**
+     * The version as an opaque string, equal for equal versions.
+     */
+    public String asString() {
+        return id + "/" + lockVersion + "/" + serviceCount + "/" + serviceLockVersions;
+    }
+}
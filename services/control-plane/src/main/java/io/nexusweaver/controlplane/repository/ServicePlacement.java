@@ -0,0 +1,24 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import java.util.UUID;
+
+/**
+ * The node a service was placed on and the resources it holds there.
+ */
+public interface ServicePlacement {
+
+    UUID getId();
+
+    UUID getDeploymentId();
+
+    String getNodeId();
+
+    Long getMemoryLimit();
+
+    Integer getCpuShares();
+}
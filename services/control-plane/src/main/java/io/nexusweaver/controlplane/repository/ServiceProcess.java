@@ -0,0 +1,18 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import java.util.UUID;
+
+/**
+ * A kernel process run for a service.
+ *
+ * @param serviceId the service
+ * @param nodeId the node running the process
+ * @param processId the kernel's process ID
+ */
+public record ServiceProcess(UUID serviceId, String nodeId, String processId) {
+}
@@ -0,0 +1,33 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The placement and recorded status of a service's kernel process.
+ */
+public interface ServiceProcessState {
+
+    UUID getId();
+
+    UUID getDeploymentId();
+
+    UUID getApplicationId();
+
+    String getName();
+
+    String getNodeId();
+
+    String getProcessId();
+
+    ServiceStatus getStatus();
+
+    LocalDateTime getUpdatedAt();
+}
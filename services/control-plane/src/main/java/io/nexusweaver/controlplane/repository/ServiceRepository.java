@@ -0,0 +1,110 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.repository;
+
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.Service;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for Service entities.
+ */
+@Repository
+public interface ServiceRepository extends JpaRepository<Service, UUID> {
+    
+    /**
+     * Service languages of every application, with the number of deployments using each.
+     */
+    @Query("SELECT d.application.id AS applicationId, s.language AS language, " +
+           "COUNT(DISTINCT d.id) AS deploymentCount " +
+           "FROM Service s JOIN s.deployment d WHERE s.language IS NOT NULL " +
+           "GROUP BY d.application.id, s.language")
+    List<ApplicationLanguage> findApplicationLanguageCounts();
+    
+    /**
+     * Service languages of the given applications, with the number of deployments using each.
+     */
+    @Query("SELECT d.application.id AS applicationId, s.language AS language, " +
+           "COUNT(DISTINCT d.id) AS deploymentCount " +
+           "FROM Service s JOIN s.deployment d WHERE s.language IS NOT NULL " +
+           "AND d.application.id IN :applicationIds " +
+           "GROUP BY d.application.id, s.language")
+    List<ApplicationLanguage> findApplicationLanguageCountsByApplicationIdIn(
+            @Param("applicationIds") Collection<UUID> applicationIds);
+    
+    /**
+     * Nodes running a process of a service in the given statuses, of a deployment not in the excluded statuses.
+     */
+    @Query("SELECT DISTINCT s.nodeId FROM Service s JOIN s.deployment d " +
+           "WHERE d.status NOT IN :excludedDeploymentStatuses AND s.status IN :statuses " +
+           "AND s.nodeId IS NOT NULL AND s.processId IS NOT NULL")
+    List<String> findNodeIdsWithProcesses(
+            @Param("excludedDeploymentStatuses") Collection<DeploymentStatus> excludedDeploymentStatuses,
+            @Param("statuses") Collection<ServiceStatus> statuses);
+    
+    /**
+     * Process state of the services on one node in the given statuses, of a deployment not in the excluded statuses.
+     */
+    @Query("SELECT s.id AS id, d.id AS deploymentId, d.application.id AS applicationId, s.name AS name, " +
+           "s.nodeId AS nodeId, s.processId AS processId, s.status AS status, s.updatedAt AS updatedAt " +
+           "FROM Service s JOIN s.deployment d " +
+           "WHERE s.nodeId = :nodeId AND d.status NOT IN :excludedDeploymentStatuses " +
+           "AND s.status IN :statuses AND s.processId IS NOT NULL")
+    List<ServiceProcessState> findProcessStatesByNodeId(
+            @Param("nodeId") String nodeId,
+            @Param("excludedDeploymentStatuses") Collection<DeploymentStatus> excludedDeploymentStatuses,
+            @Param("statuses") Collection<ServiceStatus> statuses);
+    
+    /**
+     * Move the given services from one status to another in a single statement.
+     * Services no longer in the expected status are left alone. The lock version is bumped,
+     * so a concurrent change to a loaded copy of a moved service fails its version check.
+     *
+     * @return the number of services updated
+     */
+    @Modifying
+    @Query("UPDATE Service s SET s.status = :status, s.updatedAt = :updatedAt, " +
+           "s.lockVersion = s.lockVersion + 1 " +
+           "WHERE s.id IN :ids AND s.status = :expected")
+    int updateStatus(@Param("ids") Collection<UUID> ids,
+                     @Param("expected") ServiceStatus expected,
+                     @Param("status") ServiceStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * IDs of the given services that are currently in the given status.
+     */
+    @Query("SELECT s.id FROM Service s WHERE s.id IN :ids AND s.status = :status")
+    List<UUID> findIdsByIdInAndStatus(@Param("ids") Collection<UUID> ids,
+                                      @Param("status") ServiceStatus status);
+    
+    /**
+     * Placement of every service in the given statuses that has been placed on a node.
+     */
+    @Query("SELECT s.id AS id, s.deployment.id AS deploymentId, s.nodeId AS nodeId, " +
+           "s.memoryLimit AS memoryLimit, s.cpuShares AS cpuShares " +
+           "FROM Service s WHERE s.nodeId IS NOT NULL AND s.status IN :statuses")
+    List<ServicePlacement> findPlacementsByStatusIn(@Param("statuses") Collection<ServiceStatus> statuses);
+    
+    /**
+     * Delete the services of a deployment in a single statement.
+     *
+     * @return the number of services deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Service s WHERE s.deployment.id = :deploymentId")
+    int bulkDeleteByDeploymentId(@Param("deploymentId") UUID deploymentId);
+}
@@ -0,0 +1,316 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.scheduler;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import io.nexusweaver.controlplane.event.DeploymentEvent;
+import io.nexusweaver.controlplane.event.ServiceStatusEvent;
+import io.nexusweaver.controlplane.repository.ServicePlacement;
+import io.nexusweaver.controlplane.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kernel nodes services can be placed on, with the memory and CPU shares committed on each.
+ *
+ * Capacity is reserved when a service is placed and released when the service stops, fails
+ * or its deployment is deleted, so placement never touches the database. Nodes are kept
+ * ordered by free memory for the {@link PlacementEngine}. A periodic resync rebuilds the
+ * committed capacity from the services recorded as running and repairs drift.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NodeRegistry {
+
+    /**
+     * Service statuses that hold their node's resources.
+     */
+    static final Set<ServiceStatus> HOLDING_STATUSES =
+            EnumSet.of(ServiceStatus.STARTING, ServiceStatus.RUNNING, ServiceStatus.STOPPING);
+
+    private static final Comparator<Node> BY_FREE_MEMORY = Comparator
+            .comparingLong(Node::freeMemory)
+            .thenComparing(Node::id);
+
+    private final NexusWeaverProperties properties;
+    private final ServiceRepository serviceRepository;
+
+    // All guarded by this
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final NavigableSet<Node> byFreeMemory = new TreeSet<>(BY_FREE_MEMORY);
+    private final Map<UUID, Reservation> reservations = new HashMap<>();
+    private final Map<UUID, Map<String, Integer>> deploymentNodes = new HashMap<>();
+    private boolean ready;
+
+    /**
+     * Capacity of one node at a point in time.
+     *
+     * @param committedMemory memory bytes reserved by services placed on the node
+     * @param committedCpuShares CPU shares reserved by services placed on the node
+     */
+    public record NodeCapacity(
+            String id,
+            long memoryBytes,
+            int cpuShares,
+            long committedMemory,
+            int committedCpuShares) {
+    }
+
+    /**
+     * Capacity of every registered node.
+     */
+    public synchronized List<NodeCapacity> capacities() {
+        ensureReady();
+        return nodes.values().stream()
+                .map(node -> new NodeCapacity(node.id, node.memoryBytes, node.cpuShares,
+                        node.committedMemory, node.committedCpuShares))
+                .toList();
+    }
+
+    /**
+     * Give back the resources held by a service. Does nothing if the service holds none.
+     */
+    public synchronized void release(UUID serviceId) {
+        Reservation reservation = reservations.remove(serviceId);
+        if (reservation != null) {
+            unaccount(reservation);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        ensureReady();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onServiceStatusEvent(ServiceStatusEvent event) {
+        if (!HOLDING_STATUSES.contains(event.status())) {
+            release(event.serviceId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDeploymentEvent(DeploymentEvent event) {
+        if (event.type() == DeploymentEvent.Type.DELETED) {
+            reservations.values().removeIf(reservation -> {
+                if (reservation.deploymentId().equals(event.deploymentId())) {
+                    unaccount(reservation);
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Rebuild committed capacity from the services recorded as holding resources.
+     * Placements younger than one kernel call may not be recorded yet and are kept.
+     */
+    @Scheduled(initialDelayString = "${nexusweaver.control-plane.scheduler.resync-interval:300000}",
+               fixedDelayString = "${nexusweaver.control-plane.scheduler.resync-interval:300000}")
+    public void resync() {
+        NexusWeaverProperties.Kernel kernel = properties.getKernel();
+        long pendingSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(
+                kernel.getConnectionTimeout() + kernel.getRequestTimeout());
+        List<ServicePlacement> placements = serviceRepository.findPlacementsByStatusIn(HOLDING_STATUSES);
+
+        synchronized (this) {
+            if (!ready) {
+                return;
+            }
+            Map<UUID, Reservation> fresh = new HashMap<>();
+            for (ServicePlacement placement : placements) {
+                if (nodes.containsKey(placement.getNodeId())) {
+                    fresh.put(placement.getId(), toReservation(placement));
+                }
+            }
+            for (Reservation reservation : reservations.values()) {
+                if (reservation.reservedAt() - pendingSince > 0) {
+                    fresh.putIfAbsent(reservation.serviceId(), reservation);
+                }
+            }
+            int drifted = 0;
+            for (Reservation reservation : fresh.values()) {
+                if (!reservation.equalsIgnoringTime(reservations.get(reservation.serviceId()))) {
+                    drifted++;
+                }
+            }
+            drifted += (int) reservations.keySet().stream().filter(id -> !fresh.containsKey(id)).count();
+            rebuild(fresh.values());
+            if (drifted > 0) {
+                log.warn("Node registry repaired {} reservations that drifted from the database", drifted);
+            }
+        }
+    }
+
+    /**
+     * Nodes ordered by free memory. Only use while holding the registry's lock.
+     */
+    NavigableSet<Node> byFreeMemory() {
+        ensureReady();
+        return byFreeMemory;
+    }
+
+    /**
+     * Number of services of a deployment on each node. Only use while holding the registry's lock.
+     */
+    Map<String, Integer> nodesOf(UUID deploymentId) {
+        return deploymentNodes.getOrDefault(deploymentId, Map.of());
+    }
+
+    /**
+     * Commit a service's resources on a node. Only call while holding the registry's lock.
+     */
+    void reserve(Node node, UUID serviceId, UUID deploymentId, long memoryBytes, int cpuShares) {
+        release(serviceId);
+        Reservation reservation = new Reservation(serviceId, deploymentId, node.id,
+                memoryBytes, cpuShares, System.nanoTime());
+        reservations.put(serviceId, reservation);
+        account(reservation);
+    }
+
+    /**
+     * Probe that sorts just before every node with at least the given free memory.
+     */
+    static Node probe(long freeMemory) {
+        return new Node("", freeMemory, 0);
+    }
+
+    private void ensureReady() {
+        if (ready) {
+            return;
+        }
+        List<NexusWeaverProperties.Node> configured = properties.getScheduler().getNodes();
+        if (configured.isEmpty()) {
+            log.warn("No kernel nodes configured, placing every service on localhost");
+            NexusWeaverProperties.Node local = new NexusWeaverProperties.Node();
+            local.setId("localhost");
+            configured = List.of(local);
+        }
+        for (NexusWeaverProperties.Node node : configured) {
+            if (node.getId() == null || node.getId().isBlank()) {
+                throw new IllegalStateException("Kernel node without an id in nexusweaver.control-plane.scheduler.nodes");
+            }
+            nodes.put(node.getId(), new Node(node.getId(), node.getMemoryBytes(), node.getCpuShares()));
+        }
+        rebuild(serviceRepository.findPlacementsByStatusIn(HOLDING_STATUSES).stream()
+                .filter(placement -> nodes.containsKey(placement.getNodeId()))
+                .map(this::toReservation)
+                .toList());
+        ready = true;
+        log.info("Registered {} kernel nodes holding {} services", nodes.size(), reservations.size());
+    }
+
+    private void rebuild(Iterable<Reservation> fresh) {
+        reservations.clear();
+        deploymentNodes.clear();
+        byFreeMemory.clear();
+        for (Node node : nodes.values()) {
+            node.committedMemory = 0;
+            node.committedCpuShares = 0;
+        }
+        byFreeMemory.addAll(nodes.values());
+        for (Reservation reservation : fresh) {
+            reservations.put(reservation.serviceId(), reservation);
+            account(reservation);
+        }
+    }
+
+    private void account(Reservation reservation) {
+        adjust(reservation, 1);
+        deploymentNodes.computeIfAbsent(reservation.deploymentId(), id -> new HashMap<>())
+                .merge(reservation.nodeId(), 1, Integer::sum);
+    }
+
+    private void unaccount(Reservation reservation) {
+        adjust(reservation, -1);
+        Map<String, Integer> counts = deploymentNodes.get(reservation.deploymentId());
+        if (counts != null) {
+            counts.computeIfPresent(reservation.nodeId(), (id, count) -> count > 1 ? count - 1 : null);
+            if (counts.isEmpty()) {
+                deploymentNodes.remove(reservation.deploymentId());
+            }
+        }
+    }
+
+    private void adjust(Reservation reservation, int sign) {
+        Node node = nodes.get(reservation.nodeId());
+        if (node == null) {
+            return;
+        }
+        // Re-insert so the node moves to its new position in the free memory order
+        byFreeMemory.remove(node);
+        node.committedMemory += sign * reservation.memoryBytes();
+        node.committedCpuShares += sign * reservation.cpuShares();
+        byFreeMemory.add(node);
+    }
+
+    private Reservation toReservation(ServicePlacement placement) {
+        NexusWeaverProperties.Process defaults = properties.getProcess();
+        return new Reservation(placement.getId(), placement.getDeploymentId(), placement.getNodeId(),
+                placement.getMemoryLimit() != null ? placement.getMemoryLimit() : defaults.getDefaultMemoryLimit(),
+                placement.getCpuShares() != null ? placement.getCpuShares() : defaults.getDefaultCpuShares(),
+                System.nanoTime());
+    }
+
+    /**
+     * A kernel node and the resources committed on it. Mutated only under the registry's lock,
+     * and only while removed from the free memory order.
+     */
+    static final class Node {
+        private final String id;
+        private final long memoryBytes;
+        private final int cpuShares;
+        private long committedMemory;
+        private int committedCpuShares;
+
+        private Node(String id, long memoryBytes, int cpuShares) {
+            this.id = id;
+            this.memoryBytes = memoryBytes;
+            this.cpuShares = cpuShares;
+        }
+
+        String id() {
+            return id;
+        }
+
+        long freeMemory() {
+            return memoryBytes - committedMemory;
+        }
+
+        int freeCpuShares() {
+            return cpuShares - committedCpuShares;
+        }
+    }
+
+    private record Reservation(UUID serviceId, UUID deploymentId, String nodeId,
+                               long memoryBytes, int cpuShares, long reservedAt) {
+
+        boolean equalsIgnoringTime(Reservation other) {
+            return other != null && nodeId.equals(other.nodeId) && deploymentId.equals(other.deploymentId)
+                    && memoryBytes == other.memoryBytes && cpuShares == other.cpuShares;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.scheduler;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.domain.entity.Service;
+import io.nexusweaver.controlplane.kernel.NodeHealthTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+
+/**
+ * Chooses the kernel node a service runs on and reserves its resources there.
+ *
+ * Nodes are searched in free memory order: {@code BIN_PACK} starts at the fullest node that
+ * still has room for the service's memory, {@code SPREAD} at the emptiest node. Either way the
+ * starting point is found in O(log nodes), and the search only moves on past nodes short of
+ * CPU shares, with an open circuit, or already running a service of the same deployment.
+ * Anti-affinity is soft: when every node with room already runs part of the deployment,
+ * the first of them is used.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PlacementEngine {
+
+    private final NodeRegistry registry;
+    private final NodeHealthTracker health;
+    private final NexusWeaverProperties properties;
+
+    /**
+     * Place a service on a node and reserve its memory and CPU shares there.
+     * The reservation is given back once the service leaves a running state, or via {@link #release}.
+     *
+     * @param service the service to place; its deployment must be set
+     * @return the ID of the chosen node
+     * @throws IllegalStateException if no node has room for the service
+     */
+    public String place(Service service) {
+        NexusWeaverProperties.Process defaults = properties.getProcess();
+        long memory = service.getMemoryLimit() != null ? service.getMemoryLimit() : defaults.getDefaultMemoryLimit();
+        int cpuShares = service.getCpuShares() != null ? service.getCpuShares() : defaults.getDefaultCpuShares();
+        UUID deploymentId = service.getDeployment().getId();
+
+        synchronized (registry) {
+            NavigableSet<NodeRegistry.Node> nodes = registry.byFreeMemory();
+            Iterable<NodeRegistry.Node> candidates = properties.getScheduler().getPolicy()
+                    == NexusWeaverProperties.PlacementPolicy.BIN_PACK
+                    ? nodes.tailSet(NodeRegistry.probe(memory), true)
+                    : nodes.descendingSet();
+            Map<String, Integer> siblings = registry.nodesOf(deploymentId);
+
+            NodeRegistry.Node chosen = null;
+            NodeRegistry.Node shared = null;
+            for (NodeRegistry.Node node : candidates) {
+                if (node.freeMemory() < memory) {
+                    break; // only reached when spreading; every node after this one is fuller
+                }
+                if (node.freeCpuShares() < cpuShares || !health.isAvailable(node.id())) {
+                    continue;
+                }
+                if (!siblings.containsKey(node.id())) {
+                    chosen = node;
+                    break;
+                }
+                if (shared == null) {
+                    shared = node;
+                }
+            }
+            if (chosen == null) {
+                chosen = shared;
+            }
+            if (chosen == null) {
+                throw new IllegalStateException("No available kernel node has " + memory + " bytes of memory and "
+                        + cpuShares + " CPU shares free for service " + service.getName());
+            }
+            registry.reserve(chosen, service.getId(), deploymentId, memory, cpuShares);
+            log.debug("Placed service {} on node {}", service.getName(), chosen.id());
+            return chosen.id();
+        }
+    }
+
+    /**
+     * Give back the resources reserved for a service, e.g. when it failed to start.
+     */
+    public void release(UUID serviceId) {
+        registry.release(serviceId);
+    }
+}
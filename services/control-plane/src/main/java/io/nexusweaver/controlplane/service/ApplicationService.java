@@ -6,8 +6,8 @@
 package io.nexusweaver.controlplane.service;
 
 import io.nexusweaver.controlplane.api.dto.ApplicationDto;
+import io.nexusweaver.controlplane.api.dto.CursorPage;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -16,11 +16,23 @@ import java.util.UUID;
 public interface ApplicationService {
     
     /**
-     * Get all applications with deployment statistics.
+     * List applications with deployment statistics, one keyset page at a time.
      *
-     * @return list of applications
+     * @param name case-insensitive substring of the application name (optional)
+     * @param cursor cursor returned with the previous page (optional)
+     * @param limit page size (optional, capped by the configured maximum)
+     * @param sort {@code createdAt[,asc|desc]} (optional, newest first by default)
+     * @return one page of applications
      */
-    List<ApplicationDto> getAllApplications();
+    CursorPage<ApplicationDto> getAllApplications(String name, String cursor, Integer limit, String sort);
+    
+    /**
+     * Version of one page of the application listing, for conditional requests.
+     * Takes the same arguments as {@link #getAllApplications} and changes whenever that page would.
+     *
+     * @return an opaque version string
+     */
+    String getApplicationsVersion(String name, String cursor, Integer limit, String sort);
     
     /**
      * Get an application by ID.
@@ -31,7 +43,17 @@ public interface ApplicationService {
     ApplicationDto getApplication(UUID id);
     
     /**
-     * Delete an application and all its deployments.
+     * Version of an application and its deployment statistics, for conditional requests.
+     *
+     * @param id the application ID
+     * @return an opaque version string
+     */
+    String getApplicationVersion(UUID id);
+    
+    /**
+     * Delete an application and all its deployments. Every deployment is marked TERMINATING and
+     * queued for deletion; the application is removed together with the last of them, and no
+     * deployments can be added to it until then.
      *
      * @param id the application ID
      */
@@ -5,9 +5,12 @@
 
 package io.nexusweaver.controlplane.service;
 
+import io.nexusweaver.controlplane.api.dto.CursorPage;
 import io.nexusweaver.controlplane.api.dto.DeploymentRequest;
 import io.nexusweaver.controlplane.api.dto.DeploymentResponse;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,6 +27,17 @@ public interface DeploymentService {
      */
     DeploymentResponse createDeployment(DeploymentRequest request);
 
+    /**
+     * Create several deployments in one transaction. Applications are resolved in one query
+     * and deployments and services are inserted in JDBC batches; every deployment is queued
+     * for rollout once the transaction commits.
+     *
+     * @param requests the deployment requests
+     * @return the created deployments, in request order
+     * @throws IllegalArgumentException if more than {@code maxBatchSize} deployments are requested
+     */
+    List<DeploymentResponse> createDeployments(List<DeploymentRequest> requests);
+
     /**
      * Get a deployment by ID.
      *
@@ -33,23 +47,57 @@ public interface DeploymentService {
     DeploymentResponse getDeployment(UUID deploymentId);
 
     /**
-     * List all deployments with optional filters.
+     * Version of a deployment and its services, for conditional requests.
+     * Computed with one aggregate query over their lock versions; changes whenever the
+     * deployment or one of its services changes.
+     *
+     * @param deploymentId the deployment ID
+     * @return an opaque version string
+     */
+    String getDeploymentVersion(UUID deploymentId);
+
+    /**
+     * List deployments with optional filters, one keyset page at a time.
      *
      * @param applicationId filter by application ID (optional)
      * @param status filter by status (optional)
-     * @return list of deployments
+     * @param cursor cursor returned with the previous page (optional)
+     * @param limit page size (optional, capped by the configured maximum)
+     * @param sort {@code createdAt[,asc|desc]} (optional, newest first by default)
+     * @return one page of deployments
+     */
+    CursorPage<DeploymentResponse> listDeployments(UUID applicationId, String status,
+                                                   String cursor, Integer limit, String sort);
+
+    /**
+     * Version of the page {@link #listDeployments} returns for the same arguments, for conditional
+     * requests. Computed with one aggregate query over the lock versions of the page's deployments
+     * and their services; changes whenever one of them, or the set of deployments on the page, changes.
+     *
+     * @return an opaque version string
+     */
+    String getDeploymentsVersion(UUID applicationId, String status, String cursor, Integer limit, String sort);
+
+    /**
+     * Write every deployment with its services as newline-delimited JSON, oldest first.
+     * Deployments are read from a database cursor and written one at a time, so memory
+     * use does not grow with the size of the inventory.
+     *
+     * @param out the stream to write to; left open
      */
-    List<DeploymentResponse> listDeployments(UUID applicationId, String status);
+    void exportDeployments(OutputStream out) throws IOException;
 
     /**
-     * Delete a deployment.
+     * Mark a deployment TERMINATING and queue its deletion. Its processes are stopped
+     * and its rows removed in the background, outside the request transaction.
      *
      * @param deploymentId the deployment ID
      */
     void deleteDeployment(UUID deploymentId);
 
     /**
-     * Stop a deployment.
+     * Mark a deployment TERMINATING and queue stopping its services. It becomes
+     * TERMINATED in the background once the kernels have stopped the processes.
      *
      * @param deploymentId the deployment ID
      * @return the updated deployment
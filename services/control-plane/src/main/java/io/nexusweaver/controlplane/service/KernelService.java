@@ -5,6 +5,9 @@
 
 package io.nexusweaver.controlplane.service;
 
+import java.time.Instant;
+import java.util.Map;
+
 /**
  * Service interface for communicating with kernel instances.
  */
@@ -40,6 +43,15 @@ public interface KernelService {
      */
     ProcessStatus getProcessStatus(String nodeId, String processId);
 
+    /**
+     * List the processes a kernel node runs.
+     *
+     * @param nodeId the node ID
+     * @return process status keyed by process ID
+     * @throws RuntimeException if the node could not be queried
+     */
+    Map<String, ProcessStatus> listProcesses(String nodeId);
+
     /**
      * Check if a kernel node is healthy.
      *
@@ -48,6 +60,24 @@ public interface KernelService {
      */
     boolean isNodeHealthy(String nodeId);
 
+    /**
+     * Follow the log output of a process. Entries are delivered on a transport thread
+     * until the stream ends or is cancelled.
+     *
+     * @param nodeId the node ID
+     * @param processId the process ID
+     * @param tailLines number of earlier lines to replay first (0 = all)
+     * @param listener receives the entries and the end of the stream
+     * @return a handle that cancels the stream
+     * @throws UnsupportedOperationException if the kernel transport cannot stream logs; only the gRPC
+     *         transport can, against a kernel serving {@code StreamLogs} from services/api/v1/kernel.proto,
+     *         which the Go kernel in this repository does not
+     */
+    default LogSubscription streamLogs(String nodeId, String processId, int tailLines, LogListener listener) {
+        throw new UnsupportedOperationException(
+                "Log streaming requires the gRPC kernel transport and a kernel serving the api/v1 StreamLogs call");
+    }
+
     /**
      * Process status from kernel.
      */
@@ -58,4 +88,34 @@ public interface KernelService {
         FAILED,
         TERMINATED
     }
+
+    /**
+     * One line of process output.
+     *
+     * @param source stdout or stderr
+     */
+    record LogEntry(Instant timestamp, String level, String source, String message) {
+    }
+
+    /**
+     * Receiver of a process log stream.
+     */
+    interface LogListener {
+
+        void onEntry(LogEntry entry);
+
+        /**
+         * @param error the failure, or {@code null} if the stream ended normally
+         */
+        void onClosed(Throwable error);
+    }
+
+    /**
+     * Handle to an open log stream.
+     */
+    @FunctionalInterface
+    interface LogSubscription {
+
+        void cancel();
+    }
 }
\ No newline at end of file
@@ -6,20 +6,27 @@
 package io.nexusweaver.controlplane.service.impl;
 
 import io.nexusweaver.controlplane.api.dto.ApplicationDto;
+import io.nexusweaver.controlplane.api.dto.CursorPage;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
 import io.nexusweaver.controlplane.domain.entity.Application;
 import io.nexusweaver.controlplane.domain.entity.Deployment;
+import io.nexusweaver.controlplane.domain.entity.DeploymentCommandType;
 import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.event.DeploymentEventPublisher;
 import io.nexusweaver.controlplane.exception.ResourceNotFoundException;
 import io.nexusweaver.controlplane.repository.ApplicationRepository;
 import io.nexusweaver.controlplane.repository.DeploymentRepository;
 import io.nexusweaver.controlplane.service.ApplicationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,73 +41,119 @@ public class ApplicationServiceImpl implements ApplicationService {
     
     private final ApplicationRepository applicationRepository;
     private final DeploymentRepository deploymentRepository;
+    private final ApplicationStatsIndex statsIndex;
+    private final DeploymentCommandDispatcher commandDispatcher;
+    private final TransitionTemplate transitionTemplate;
+    private final DeploymentEventPublisher eventPublisher;
+    private final NexusWeaverProperties properties;
     
     @Override
-    public List<ApplicationDto> getAllApplications() {
-        log.debug("Fetching all applications");
-        List<Application> applications = applicationRepository.findAll();
-        return applications.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPage<ApplicationDto> getAllApplications(String name, String cursor, Integer limit, String sort) {
+        log.debug("Fetching applications - name: {}, cursor: {}", name, cursor);
+        CursorPage<ApplicationStatsIndex.Entry> page = page(name, cursor, limit, sort);
+        return new CursorPage<>(page.getItems().stream()
+                .map(ApplicationServiceImpl::convertToDto)
+                .collect(Collectors.toList()), page.getNextCursor());
     }
     
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getApplicationsVersion(String name, String cursor, Integer limit, String sort) {
+        CursorPage<ApplicationStatsIndex.Entry> page = page(name, cursor, limit, sort);
+        return page.getItems().stream()
+                .map(ApplicationServiceImpl::version)
+                .collect(Collectors.joining(";", "", ";" + page.getNextCursor()));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ApplicationDto getApplication(UUID id) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
-        return convertToDto(application);
+        return convertToDto(entry(id));
     }
     
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getApplicationVersion(UUID id) {
+        return version(entry(id));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteApplication(UUID id) {
-        Application application = applicationRepository.findById(id)
+        // Each deployment is stopped and deleted by its own outbox command, after any command
+        // already queued for it; the last one to go removes the application
+        transitionTemplate.executeWithoutResult(tx -> {
+            Application application = applicationRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+            List<Deployment> deployments = deploymentRepository.findByApplicationId(id);
+            if (deployments.isEmpty()) {
+                applicationRepository.bulkDeleteById(id);
+                eventPublisher.applicationDeleted(id);
+                log.info("Deleted application {}", id);
+                return;
+            }
+
+            application.setDeleting(true);
+            List<UUID> deploymentIds = new ArrayList<>(deployments.size());
+            for (Deployment deployment : deployments) {
+                // Nothing finishes into the deployment while its processes are stopped
+                if (deployment.getStatus() != DeploymentStatus.TERMINATING
+                        && deployment.getStatus().canMoveTo(DeploymentStatus.TERMINATING)) {
+                    eventPublisher.statusChanged(deployment, deployment.moveTo(DeploymentStatus.TERMINATING));
+                }
+                deploymentIds.add(deployment.getId());
+            }
+            commandDispatcher.enqueue(deploymentIds, DeploymentCommandType.DELETE);
+            log.info("Application {} queued for deletion with {} deployments", id, deploymentIds.size());
+        });
+    }
+    
+    private ApplicationStatsIndex.Entry entry(UUID id) {
+        return statsIndex.get(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
-        
-        // Delete all deployments for this application
-        List<Deployment> deployments = deploymentRepository.findByApplicationId(id);
-        deploymentRepository.deleteAll(deployments);
-        
-        // Delete the application
-        applicationRepository.delete(application);
-        log.info("Deleted application: {} and {} deployments", application.getName(), deployments.size());
     }
     
-    private ApplicationDto convertToDto(Application application) {
+    private CursorPage<ApplicationStatsIndex.Entry> page(String name, String cursor, Integer limit, String sort) {
+        int pageSize = KeysetCursor.pageSize(limit, properties.getApi());
+        Sort.Direction direction = KeysetCursor.parseSort(sort);
+        String needle = name != null && !name.isBlank() ? name.toLowerCase(Locale.ROOT) : null;
+
+        List<ApplicationStatsIndex.Entry> entries = statsIndex.page(
+                cursor != null ? KeysetCursor.decode(cursor) : null,
+                direction,
+                entry -> needle == null || entry.name().toLowerCase(Locale.ROOT).contains(needle),
+                pageSize);
+
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            nextCursor = ApplicationStatsIndex.positionOf(entries.get(pageSize - 1)).encode();
+        }
+        return new CursorPage<>(entries, nextCursor);
+    }
+    
+    /**
+     * Everything an entry contributes to its DTO. The index generation is left out:
+     * it differs between control plane instances and across restarts.
+     */
+    private static String version(ApplicationStatsIndex.Entry entry) {
+        return entry.id() + "/" + entry.name() + "/" + entry.description() + "/" + entry.createdAt() + "/"
+                + entry.updatedAt() + "/" + entry.deploymentCount() + "/" + entry.activeDeployments() + "/"
+                + entry.lastDeployedAt() + "/" + entry.languages();
+    }
+    
+    static ApplicationDto convertToDto(ApplicationStatsIndex.Entry entry) {
         ApplicationDto dto = new ApplicationDto();
-        dto.setId(application.getId());
-        dto.setName(application.getName());
-        dto.setDescription(application.getDescription());
-        dto.setCreatedAt(application.getCreatedAt());
-        dto.setUpdatedAt(application.getUpdatedAt());
-        
-        // Get deployment statistics
-        List<Deployment> deployments = deploymentRepository.findByApplicationId(application.getId());
-        dto.setDeploymentCount(deployments.size());
-        
-        // Count active deployments (DEPLOYED or DEPLOYING)
-        long activeCount = deployments.stream()
-                .filter(d -> d.getStatus() == DeploymentStatus.DEPLOYED || 
-                           d.getStatus() == DeploymentStatus.DEPLOYING)
-                .count();
-        dto.setActiveDeployments((int) activeCount);
-        
-        // Get last deployment date
-        deployments.stream()
-                .map(Deployment::getCreatedAt)
-                .max(LocalDateTime::compareTo)
-                .ifPresent(dto::setLastDeployedAt);
-        
-        // Get unique languages from all deployments
-        List<String> languages = deployments.stream()
-                .flatMap(d -> d.getServices().stream())
-                .map(s -> s.getLanguage())
-                .filter(lang -> lang != null)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-        dto.setLanguages(languages);
-        
+        dto.setId(entry.id());
+        dto.setName(entry.name());
+        dto.setDescription(entry.description());
+        dto.setCreatedAt(entry.createdAt());
+        dto.setUpdatedAt(entry.updatedAt());
+        dto.setDeploymentCount((int) entry.deploymentCount());
+        dto.setActiveDeployments((int) entry.activeDeployments());
+        dto.setLastDeployedAt(entry.lastDeployedAt());
+        dto.setLanguages(entry.languages());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,362 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.domain.entity.Application;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.event.ApplicationDeletedEvent;
+import io.nexusweaver.controlplane.event.DeploymentEvent;
+import io.nexusweaver.controlplane.repository.ApplicationDeploymentStats;
+import io.nexusweaver.controlplane.repository.ApplicationLanguage;
+import io.nexusweaver.controlplane.repository.ApplicationRepository;
+import io.nexusweaver.controlplane.repository.DeploymentRepository;
+import io.nexusweaver.controlplane.repository.ServiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of per-application deployment statistics.
+ *
+ * The index is built from the database once at startup and then maintained
+ * incrementally from {@link DeploymentEvent}s, so reads never touch the database.
+ * A periodic sweep recomputes everything from the database and repairs drift.
+ * Entries are also kept in {@code (createdAt, id)} order so listings can be paged by keyset.
+ */
+@Component
+@Slf4j
+public class ApplicationStatsIndex {
+
+    /**
+     * Deployment statuses counted as active.
+     */
+    static final Set<DeploymentStatus> ACTIVE_STATUSES =
+            EnumSet.of(DeploymentStatus.DEPLOYED, DeploymentStatus.DEPLOYING);
+
+    private static final Comparator<KeysetCursor> BY_CREATED_AT = Comparator
+            .comparing(KeysetCursor::createdAt)
+            .thenComparing(KeysetCursor::id);
+
+    private final ApplicationRepository applicationRepository;
+    private final DeploymentRepository deploymentRepository;
+    private final ServiceRepository serviceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<KeysetCursor> order = new ConcurrentSkipListSet<>(BY_CREATED_AT);
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean ready;
+
+    public ApplicationStatsIndex(ApplicationRepository applicationRepository,
+                                 DeploymentRepository deploymentRepository,
+                                 ServiceRepository serviceRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.applicationRepository = applicationRepository;
+        this.deploymentRepository = deploymentRepository;
+        this.serviceRepository = serviceRepository;
+        // Refreshes run from after-commit listeners, where the finished transaction is still
+        // bound to the thread; joining it would read outside any real transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Statistics of one application, replaced as a whole on every change.
+     *
+     * @param languageCounts number of deployments using each language
+     * @param generation index generation of the last incremental change
+     */
+    public record Entry(
+            UUID id,
+            String name,
+            String description,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            long deploymentCount,
+            long activeDeployments,
+            LocalDateTime lastDeployedAt,
+            Map<String, Integer> languageCounts,
+            long generation) {
+
+        /**
+         * Languages used by any deployment of the application, sorted.
+         */
+        public List<String> languages() {
+            return List.copyOf(languageCounts.keySet());
+        }
+    }
+
+    /**
+     * Applications ordered by {@code (createdAt, id)}, starting after the given position.
+     * Returns up to {@code limit + 1} entries so callers can tell whether another page follows.
+     *
+     * @param after position of the last entry of the previous page, or {@code null} for the first page
+     * @param direction sort direction
+     * @param filter entries to include
+     * @param limit page size
+     */
+    public List<Entry> page(KeysetCursor after, Sort.Direction direction, Predicate<Entry> filter, int limit) {
+        ensureReady();
+        NavigableSet<KeysetCursor> keys = direction.isAscending() ? order : order.descendingSet();
+        if (after != null) {
+            keys = keys.tailSet(after, false);
+        }
+        List<Entry> page = new ArrayList<>(Math.min(limit + 1, entries.size()));
+        for (KeysetCursor key : keys) {
+            Entry entry = entries.get(key.id());
+            if (entry != null && filter.test(entry)) {
+                page.add(entry);
+                if (page.size() > limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Position of an entry in the listing order; applications without a creation time sort last.
+     */
+    static KeysetCursor positionOf(Entry entry) {
+        return new KeysetCursor(entry.createdAt() != null ? entry.createdAt() : LocalDateTime.MAX, entry.id());
+    }
+
+    /**
+     * Statistics of one application.
+     */
+    public Optional<Entry> get(UUID applicationId) {
+        ensureReady();
+        return Optional.ofNullable(entries.get(applicationId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureReady();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeploymentEvent(DeploymentEvent event) {
+        if (!ready) {
+            return; // not built yet; the build reads committed state, and verify() repairs any race
+        }
+        long gen = generation.incrementAndGet();
+        switch (event.type()) {
+            case CREATED -> {
+                Entry updated = entries.computeIfPresent(event.applicationId(), (id, e) -> withDeployment(e, event, gen));
+                if (updated == null) {
+                    refresh(event.applicationId());
+                }
+            }
+            case STATUS_CHANGED -> entries.computeIfPresent(event.applicationId(), (id, e) -> {
+                long delta = (isActive(event.status()) ? 1 : 0) - (isActive(event.previousStatus()) ? 1 : 0);
+                return delta == 0 ? e : copy(e, e.deploymentCount(), e.activeDeployments() + delta,
+                        e.lastDeployedAt(), e.languageCounts(), gen);
+            });
+            case DELETED -> {
+                Entry updated = entries.computeIfPresent(event.applicationId(), (id, e) -> withoutDeployment(e, event, gen));
+                // The latest deployment is gone; the next latest is only known to the database
+                if (updated != null && Objects.equals(updated.lastDeployedAt(), event.createdAt())) {
+                    refresh(event.applicationId());
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationDeleted(ApplicationDeletedEvent event) {
+        generation.incrementAndGet();
+        remove(event.applicationId());
+    }
+
+    /**
+     * Recompute every entry from the database and repair entries that drifted.
+     * Entries changed by events while the sweep was running are left alone.
+     */
+    @Scheduled(initialDelayString = "${nexusweaver.control-plane.stats.verify-interval:300000}",
+               fixedDelayString = "${nexusweaver.control-plane.stats.verify-interval:300000}")
+    public void verify() {
+        if (!ready) {
+            return;
+        }
+        long startedAt = generation.get();
+        Map<UUID, Entry> fresh = load(null);
+        int repaired = 0;
+
+        for (Entry expected : fresh.values()) {
+            Entry current = entries.get(expected.id());
+            if (current == null) {
+                // Only add missing entries if no event (e.g. an application delete) raced the sweep
+                if (generation.get() == startedAt && entries.putIfAbsent(expected.id(), expected) == null) {
+                    order.add(positionOf(expected));
+                    repaired++;
+                }
+            } else if (current.generation() <= startedAt && !sameStats(current, expected)
+                    && entries.replace(expected.id(), current, expected)) {
+                repaired++;
+            }
+        }
+        for (Entry current : entries.values()) {
+            if (!fresh.containsKey(current.id()) && current.generation() <= startedAt
+                    && entries.remove(current.id(), current)) {
+                order.remove(positionOf(current));
+                repaired++;
+            }
+        }
+        // Keep the listing order in step with the entries
+        order.removeIf(key -> !entries.containsKey(key.id()));
+        entries.values().forEach(entry -> order.add(positionOf(entry)));
+
+        if (repaired > 0) {
+            log.warn("Application stats index repaired {} entries that drifted from the database", repaired);
+        }
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            build();
+        }
+    }
+
+    private synchronized void build() {
+        if (ready) {
+            return;
+        }
+        long started = System.nanoTime();
+        load(null).values().forEach(this::put);
+        ready = true;
+        log.info("Built application stats index for {} applications in {} ms",
+                entries.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void refresh(UUID applicationId) {
+        long gen = generation.incrementAndGet();
+        Entry entry = load(List.of(applicationId)).get(applicationId);
+        if (entry == null) {
+            remove(applicationId);
+        } else {
+            put(copy(entry, entry.deploymentCount(), entry.activeDeployments(),
+                    entry.lastDeployedAt(), entry.languageCounts(), gen));
+        }
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.id(), entry);
+        order.add(positionOf(entry));
+    }
+
+    private void remove(UUID applicationId) {
+        Entry removed = entries.remove(applicationId);
+        if (removed != null) {
+            order.remove(positionOf(removed));
+        }
+    }
+
+    /**
+     * Load entries from the database with aggregate queries.
+     *
+     * @param applicationIds the applications to load, or {@code null} for all
+     */
+    private Map<UUID, Entry> load(Collection<UUID> applicationIds) {
+        return transactionTemplate.execute(tx -> {
+            List<Application> applications = applicationIds == null
+                    ? applicationRepository.findAll()
+                    : applicationRepository.findAllById(applicationIds);
+            Map<UUID, ApplicationDeploymentStats> stats = (applicationIds == null
+                    ? deploymentRepository.findDeploymentStats(ACTIVE_STATUSES)
+                    : deploymentRepository.findDeploymentStatsByApplicationIdIn(applicationIds, ACTIVE_STATUSES))
+                    .stream()
+                    .collect(Collectors.toMap(ApplicationDeploymentStats::getApplicationId, Function.identity()));
+            Map<UUID, Map<String, Integer>> languages = new HashMap<>();
+            for (ApplicationLanguage row : applicationIds == null
+                    ? serviceRepository.findApplicationLanguageCounts()
+                    : serviceRepository.findApplicationLanguageCountsByApplicationIdIn(applicationIds)) {
+                languages.computeIfAbsent(row.getApplicationId(), id -> new TreeMap<>())
+                        .put(row.getLanguage(), (int) row.getDeploymentCount());
+            }
+
+            Map<UUID, Entry> loaded = new HashMap<>();
+            for (Application application : applications) {
+                ApplicationDeploymentStats s = stats.get(application.getId());
+                loaded.put(application.getId(), new Entry(
+                        application.getId(),
+                        application.getName(),
+                        application.getDescription(),
+                        application.getCreatedAt(),
+                        application.getUpdatedAt(),
+                        s != null ? s.getDeploymentCount() : 0,
+                        s != null ? s.getActiveDeployments() : 0,
+                        s != null ? s.getLastDeployedAt() : null,
+                        languages.getOrDefault(application.getId(), Map.of()),
+                        0));
+            }
+            return loaded;
+        });
+    }
+
+    private static Entry withDeployment(Entry e, DeploymentEvent event, long gen) {
+        Map<String, Integer> languages = new TreeMap<>(e.languageCounts());
+        event.languages().forEach(language -> languages.merge(language, 1, Integer::sum));
+        LocalDateTime last = e.lastDeployedAt() == null
+                || (event.createdAt() != null && event.createdAt().isAfter(e.lastDeployedAt()))
+                ? event.createdAt() : e.lastDeployedAt();
+        return copy(e, e.deploymentCount() + 1, e.activeDeployments() + (isActive(event.status()) ? 1 : 0),
+                last, languages, gen);
+    }
+
+    private static Entry withoutDeployment(Entry e, DeploymentEvent event, long gen) {
+        Map<String, Integer> languages = new TreeMap<>(e.languageCounts());
+        event.languages().forEach(language -> languages.computeIfPresent(language, (l, n) -> n > 1 ? n - 1 : null));
+        return copy(e, Math.max(0, e.deploymentCount() - 1),
+                Math.max(0, e.activeDeployments() - (isActive(event.status()) ? 1 : 0)),
+                e.lastDeployedAt(), languages, gen);
+    }
+
+    private static Entry copy(Entry e, long deploymentCount, long activeDeployments, LocalDateTime lastDeployedAt,
+                              Map<String, Integer> languageCounts, long gen) {
+        return new Entry(e.id(), e.name(), e.description(), e.createdAt(), e.updatedAt(),
+                deploymentCount, activeDeployments, lastDeployedAt, languageCounts, gen);
+    }
+
+    private static boolean sameStats(Entry a, Entry b) {
+        return a.deploymentCount() == b.deploymentCount()
+                && a.activeDeployments() == b.activeDeployments()
+                && Objects.equals(a.lastDeployedAt(), b.lastDeployedAt())
+                && a.languageCounts().equals(b.languageCounts());
+    }
+
+    private static boolean isActive(DeploymentStatus status) {
+        return status != null && ACTIVE_STATUSES.contains(status);
+    }
+}
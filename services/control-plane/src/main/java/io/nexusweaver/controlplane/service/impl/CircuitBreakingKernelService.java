@@ -0,0 +1,160 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.nexusweaver.controlplane.exception.ServiceUnavailableException;
+import io.nexusweaver.controlplane.kernel.NodeHealthTracker;
+import io.nexusweaver.controlplane.metrics.KernelMetrics;
+import io.nexusweaver.controlplane.metrics.KernelMetrics.Call;
+import io.nexusweaver.controlplane.service.KernelService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Kernel service that fails fast for nodes whose circuit is open and feeds the outcome of
+ * every call to the {@link NodeHealthTracker}. Wraps whichever transport is configured,
+ * which is registered under the {@value #KERNEL_TRANSPORT} qualifier. Every call is timed
+ * and failures are counted in {@link KernelMetrics}.
+ *
+ * Only failures to reach the node count against it; errors reported by a kernel that
+ * answered, such as an unknown process, count as success. Calls cancelled by their caller
+ * count as neither.
+ */
+@Service
+@Primary
+public class CircuitBreakingKernelService implements KernelService {
+
+    public static final String KERNEL_TRANSPORT = "kernelTransport";
+
+    private final KernelService transport;
+    private final NodeHealthTracker health;
+    private final KernelMetrics metrics;
+
+    public CircuitBreakingKernelService(@Qualifier(KERNEL_TRANSPORT) KernelService transport,
+                                        NodeHealthTracker health, KernelMetrics metrics) {
+        this.transport = transport;
+        this.health = health;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String startProcess(String nodeId, String processName, String command,
+                               Long memoryLimit, Integer cpuShares) {
+        return call(nodeId, Call.START_PROCESS,
+                () -> transport.startProcess(nodeId, processName, command, memoryLimit, cpuShares));
+    }
+
+    @Override
+    public void stopProcess(String nodeId, String processId) {
+        call(nodeId, Call.STOP_PROCESS, () -> {
+            transport.stopProcess(nodeId, processId);
+            return null;
+        });
+    }
+
+    @Override
+    public ProcessStatus getProcessStatus(String nodeId, String processId) {
+        // The transports report an unreachable node as FAILED rather than throwing
+        if (!health.isAvailable(nodeId)) {
+            metrics.recordFailure(nodeId, Call.GET_PROCESS, KernelMetrics.Failure.REJECTED);
+            return ProcessStatus.FAILED;
+        }
+        long started = System.nanoTime();
+        ProcessStatus status = transport.getProcessStatus(nodeId, processId);
+        metrics.recordCall(nodeId, Call.GET_PROCESS, System.nanoTime() - started);
+        return status;
+    }
+
+    @Override
+    public Map<String, ProcessStatus> listProcesses(String nodeId) {
+        return call(nodeId, Call.LIST_PROCESSES, () -> transport.listProcesses(nodeId));
+    }
+
+    /**
+     * Answered from the tracked health state; background probes keep it current.
+     */
+    @Override
+    public boolean isNodeHealthy(String nodeId) {
+        return health.getState(nodeId) == NodeHealthTracker.State.HEALTHY;
+    }
+
+    @Override
+    public LogSubscription streamLogs(String nodeId, String processId, int tailLines, LogListener listener) {
+        return call(nodeId, Call.STREAM_LOGS, () -> transport.streamLogs(nodeId, processId, tailLines, listener));
+    }
+
+    private <T> T call(String nodeId, Call type, Supplier<T> call) {
+        if (!health.isAvailable(nodeId)) {
+            metrics.recordFailure(nodeId, type, KernelMetrics.Failure.REJECTED);
+            throw new ServiceUnavailableException("Kernel node " + nodeId + " is unavailable");
+        }
+        long started = System.nanoTime();
+        try {
+            T result = call.get();
+            metrics.recordCall(nodeId, type, System.nanoTime() - started);
+            health.recordSuccess(nodeId);
+            return result;
+        } catch (RuntimeException e) {
+            if (isCancelled(e)) {
+                // Cut off by its caller, e.g. a deployment deadline; it says nothing about the node
+                metrics.recordFailure(nodeId, type, KernelMetrics.Failure.CANCELLED);
+                throw e;
+            }
+            metrics.recordCall(nodeId, type, System.nanoTime() - started);
+            if (isUnreachable(e)) {
+                metrics.recordFailure(nodeId, type, KernelMetrics.Failure.UNREACHABLE);
+                health.recordFailure(nodeId, e);
+            } else {
+                metrics.recordFailure(nodeId, type, KernelMetrics.Failure.ERROR);
+                health.recordSuccess(nodeId);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a call failed because its thread was interrupted, which closes a TCP channel with
+     * an IOException and cancels a gRPC call.
+     */
+    private static boolean isCancelled(Throwable error) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ClosedByInterruptException || cause instanceof InterruptedException) {
+                return true;
+            }
+            if (cause instanceof StatusRuntimeException grpcError) {
+                return grpcError.getStatus().getCode() == Status.Code.CANCELLED;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a failed call means the node could not be reached or did not answer in time.
+     */
+    private static boolean isUnreachable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+            if (cause instanceof StatusRuntimeException grpcError) {
+                Status.Code code = grpcError.getStatus().getCode();
+                return code == Status.Code.UNAVAILABLE || code == Status.Code.DEADLINE_EXCEEDED;
+            }
+        }
+        return false;
+    }
+}
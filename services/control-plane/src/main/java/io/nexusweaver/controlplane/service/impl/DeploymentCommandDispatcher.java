@@ -0,0 +1,176 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.DeploymentExecutorConfig;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.domain.entity.DeploymentCommand;
+import io.nexusweaver.controlplane.domain.entity.DeploymentCommandType;
+import io.nexusweaver.controlplane.metrics.DeploymentMetrics;
+import io.nexusweaver.controlplane.repository.DeploymentCommandRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues deployment commands in the outbox and drains it.
+ *
+ * Commands are inserted in the caller's transaction, next to the state change that calls for them.
+ * The dispatcher claims due commands with {@code FOR UPDATE SKIP LOCKED}, leases them and commits
+ * straight away, so no database connection is held while kernels are called, and several control
+ * plane instances can drain the same table. Each claimed command runs on the deployment executor
+ * through the {@link DeploymentEngine} and is deleted once done; one that throws is retried after
+ * a backoff, and one whose lease runs out, e.g. because its instance died, is claimed again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeploymentCommandDispatcher {
+
+    private final DeploymentCommandRepository commandRepository;
+    private final DeploymentEngine deploymentEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final NexusWeaverProperties properties;
+    private final DeploymentMetrics deploymentMetrics;
+    @Qualifier(DeploymentExecutorConfig.DEPLOYMENT_EXECUTOR)
+    private final Executor deploymentExecutor;
+    @Qualifier(DeploymentExecutorConfig.OUTBOX_EXECUTOR)
+    private final Executor outboxExecutor;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * Queue a command for each deployment in the current transaction.
+     * The dispatcher is woken once the transaction commits.
+     */
+    public void enqueue(Collection<UUID> deploymentIds, DeploymentCommandType type) {
+        LocalDateTime now = LocalDateTime.now();
+        commandRepository.saveAll(deploymentIds.stream()
+                .map(deploymentId -> DeploymentCommand.builder()
+                        .deploymentId(deploymentId)
+                        .type(type)
+                        .availableAt(now)
+                        .build())
+                .toList());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wake();
+            }
+        });
+    }
+
+    /**
+     * Claim due commands soon. Wake-ups while a claim is already pending are dropped.
+     */
+    public void wake() {
+        outboxExecutor.execute(this::dispatch);
+    }
+
+    @Scheduled(initialDelayString = "${nexusweaver.control-plane.outbox.poll-interval:1000}",
+               fixedDelayString = "${nexusweaver.control-plane.outbox.poll-interval:1000}")
+    public void poll() {
+        wake();
+        try {
+            deploymentMetrics.recordCommandsDue(commandRepository.countDue(LocalDateTime.now()));
+        } catch (Exception e) {
+            log.warn("Failed to count due deployment commands: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim as many commands as the deployment executor has free workers and hand them over.
+     */
+    private void dispatch() {
+        NexusWeaverProperties.Outbox outbox = properties.getOutbox();
+        try {
+            int free = properties.getDeployment().getMaxConcurrentDeployments() - running.get();
+            while (free > 0) {
+                int limit = Math.min(free, outbox.getBatchSize());
+                List<DeploymentCommand> claimed = claim(limit);
+                for (DeploymentCommand command : claimed) {
+                    running.incrementAndGet();
+                    deploymentExecutor.execute(() -> run(command));
+                }
+                free -= claimed.size();
+                if (claimed.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to claim deployment commands", e);
+        }
+    }
+
+    private List<DeploymentCommand> claim(int limit) {
+        return transactionTemplate.execute(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime leasedUntil = now.plus(properties.getOutbox().getLease(), ChronoUnit.MILLIS);
+            List<DeploymentCommand> commands = commandRepository.lockDue(now, limit);
+            for (DeploymentCommand command : commands) {
+                command.setAttempts(command.getAttempts() + 1);
+                command.setAvailableAt(leasedUntil);
+            }
+            return commands;
+        });
+    }
+
+    private void run(DeploymentCommand command) {
+        try {
+            switch (command.getType()) {
+                case DEPLOY -> deploymentEngine.deploy(command.getDeploymentId());
+                case STOP -> deploymentEngine.stop(command.getDeploymentId(), command.getCreatedAt());
+                case DELETE -> deploymentEngine.delete(command.getDeploymentId(), command.getCreatedAt());
+            }
+            transactionTemplate.executeWithoutResult(tx -> commandRepository.deleteById(command.getId()));
+        } catch (Exception e) {
+            retryLater(command, e);
+        } finally {
+            running.decrementAndGet();
+            wake();
+        }
+    }
+
+    private void retryLater(DeploymentCommand command, Exception failure) {
+        NexusWeaverProperties.Outbox outbox = properties.getOutbox();
+        boolean giveUp = command.getAttempts() >= outbox.getMaxAttempts();
+        if (giveUp) {
+            log.error("Giving up on {} of deployment {} after {} attempts", command.getType(),
+                    command.getDeploymentId(), command.getAttempts(), failure);
+        } else {
+            log.warn("{} of deployment {} failed on attempt {}, retrying", command.getType(),
+                    command.getDeploymentId(), command.getAttempts(), failure);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> commandRepository.findById(command.getId())
+                    .ifPresent(c -> {
+                        if (giveUp) {
+                            commandRepository.delete(c);
+                        } else {
+                            c.setLastError(String.valueOf(failure.getMessage()));
+                            c.setAvailableAt(LocalDateTime.now()
+                                    .plus(outbox.getRetryDelay() * command.getAttempts(), ChronoUnit.MILLIS));
+                        }
+                    }));
+        } catch (Exception e) {
+            // The lease runs out and the command is claimed again
+            log.error("Failed to reschedule {} of deployment {}", command.getType(), command.getDeploymentId(), e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.DeploymentExecutorConfig;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import io.nexusweaver.controlplane.event.DeploymentEventPublisher;
+import io.nexusweaver.controlplane.repository.DeploymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Enforces {@code deploymentTimeout} on rollouts, stops and deletes run by the {@link DeploymentEngine}.
+ *
+ * Each run holds a {@link Deadline} on a shared {@link TimingWheel}, and the kernel calls made for
+ * its services go through that deadline. When it passes, the calls still waiting on a kernel are
+ * cancelled by interrupting their threads: a TCP exchange then has its socket channel closed and
+ * the pooled connection is dropped, and a gRPC call is cancelled. Calls not started yet fail
+ * straight away. Cancelled calls do not count against the node's circuit. The deployment moves
+ * to FAILED together with the services it had not started, unless it left the phase in the
+ * meantime; a stop or delete can be issued again from there. A stop cut off this way still
+ * records the services it did stop once its kernel calls return.
+ */
+@Component
+@Slf4j
+public class DeploymentDeadlines {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final DeploymentRepository deploymentRepository;
+    private final TransitionTemplate transitionTemplate;
+    private final DeploymentEventPublisher eventPublisher;
+    private final NexusWeaverProperties properties;
+    private final TimingWheel wheel;
+
+    public DeploymentDeadlines(DeploymentRepository deploymentRepository,
+                               TransitionTemplate transitionTemplate,
+                               DeploymentEventPublisher eventPublisher,
+                               NexusWeaverProperties properties,
+                               @Qualifier(DeploymentExecutorConfig.DEADLINE_EXECUTOR) Executor deadlineExecutor) {
+        this.deploymentRepository = deploymentRepository;
+        this.transitionTemplate = transitionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.wheel = new TimingWheel("deployment-deadlines", properties.getDeployment().getDeadlineTick(),
+                TimeUnit.MILLISECONDS, WHEEL_SIZE, deadlineExecutor);
+    }
+
+    /**
+     * Start the clock on one run of the engine. Close the deadline when the run is done.
+     *
+     * @param deploymentId the deployment ID
+     * @param phase the status the deployment is failed from when the deadline passes,
+     *              or null to only cancel its kernel calls
+     */
+    public Deadline start(UUID deploymentId, DeploymentStatus phase) {
+        Deadline deadline = new Deadline(deploymentId, phase);
+        deadline.timeout = wheel.schedule(() -> expire(deadline),
+                properties.getDeployment().getDeploymentTimeout(), TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+    }
+
+    private void expire(Deadline deadline) {
+        int cancelled = deadline.expire();
+        log.warn("Deployment {} exceeded its timeout of {} ms, cancelled {} kernel calls",
+                deadline.deploymentId, properties.getDeployment().getDeploymentTimeout(), cancelled);
+        if (deadline.phase == null) {
+            return;
+        }
+        try {
+            transitionTemplate.executeWithoutResult(tx -> deploymentRepository.findById(deadline.deploymentId)
+                    .filter(d -> d.getStatus() == deadline.phase)
+                    .ifPresent(d -> {
+                        for (io.nexusweaver.controlplane.domain.entity.Service service : d.getServices()) {
+                            if (service.getStatus() == ServiceStatus.INIT || service.getStatus() == ServiceStatus.STARTING) {
+                                eventPublisher.serviceStatusChanged(service, service.moveTo(ServiceStatus.FAILED));
+                            }
+                        }
+                        eventPublisher.statusChanged(d, d.moveTo(DeploymentStatus.FAILED));
+                    }));
+        } catch (Exception e) {
+            log.error("Failed to fail deployment {} after its timeout", deadline.deploymentId, e);
+        }
+    }
+
+    /**
+     * The deadline of one engine run, through which its kernel calls are made.
+     */
+    public static final class Deadline implements AutoCloseable {
+
+        /**
+         * A deadline that never passes, for kernel calls made outside the engine.
+         */
+        public static final Deadline NONE = new Deadline(null, null);
+
+        private final UUID deploymentId;
+        private final DeploymentStatus phase;
+        private final Set<Thread> callers = new HashSet<>();
+        private TimingWheel.Timeout timeout;
+        private boolean expired;
+
+        private Deadline(UUID deploymentId, DeploymentStatus phase) {
+            this.deploymentId = deploymentId;
+            this.phase = phase;
+        }
+
+        /**
+         * Make a kernel call that is cancelled if the deadline passes while it runs.
+         *
+         * @throws CancellationException if the deadline has already passed
+         */
+        public <T> T call(Supplier<T> kernelCall) {
+            Thread thread = Thread.currentThread();
+            synchronized (this) {
+                if (expired) {
+                    throw new CancellationException("Deployment " + deploymentId + " exceeded its timeout");
+                }
+                callers.add(thread);
+            }
+            try {
+                return kernelCall.get();
+            } finally {
+                synchronized (this) {
+                    callers.remove(thread);
+                    if (expired) {
+                        // The interrupt was meant for this call only; pool threads are reused
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Make a kernel call without a result; see {@link #call}.
+         */
+        public void run(Runnable kernelCall) {
+            call(() -> {
+                kernelCall.run();
+                return null;
+            });
+        }
+
+        private synchronized int expire() {
+            expired = true;
+            callers.forEach(Thread::interrupt);
+            return callers.size();
+        }
+
+        /**
+         * Stop the clock; a no-op once the deadline has passed.
+         */
+        @Override
+        public void close() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.DeploymentExecutorConfig;
+import io.nexusweaver.controlplane.domain.entity.Application;
+import io.nexusweaver.controlplane.domain.entity.Deployment;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import io.nexusweaver.controlplane.event.DeploymentEventPublisher;
+import io.nexusweaver.controlplane.metrics.DeploymentMetrics;
+import io.nexusweaver.controlplane.repository.ApplicationRepository;
+import io.nexusweaver.controlplane.repository.DeploymentRepository;
+import io.nexusweaver.controlplane.repository.ServiceProcess;
+import io.nexusweaver.controlplane.repository.ServiceRepository;
+import io.nexusweaver.controlplane.scheduler.PlacementEngine;
+import io.nexusweaver.controlplane.service.KernelService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Carries out deployment commands from the outbox: rollouts, stops and deletes.
+ * Called by the {@link DeploymentCommandDispatcher} on the deployment executor.
+ *
+ * Kernel calls are made outside of any transaction; every state transition is
+ * persisted in its own short transaction so progress is visible while the command runs.
+ * Transitions are version-checked and retried on a concurrent update, and each one re-reads
+ * the status it moves from, so a stop or delete issued mid-rollout is never overwritten.
+ * Services of one deployment start in parallel, honouring their declared dependencies.
+ * Each run is bounded by {@code deploymentTimeout}; see {@link DeploymentDeadlines}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeploymentEngine {
+
+    private final ApplicationRepository applicationRepository;
+    private final DeploymentRepository deploymentRepository;
+    private final ServiceRepository serviceRepository;
+    private final KernelService kernelService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransitionTemplate transitionTemplate;
+    private final DeploymentEventPublisher eventPublisher;
+    private final PlacementEngine placementEngine;
+    private final ProcessTeardown processTeardown;
+    private final DeploymentMetrics deploymentMetrics;
+    private final DeploymentDeadlines deadlines;
+    @Qualifier(DeploymentExecutorConfig.SERVICE_START_EXECUTOR)
+    private final Executor serviceStartExecutor;
+
+    /**
+     * Roll out a PENDING deployment: start every service on a kernel and record the outcome.
+     *
+     * @param deploymentId the deployment ID
+     */
+    public void deploy(UUID deploymentId) {
+        List<io.nexusweaver.controlplane.domain.entity.Service> services = transitionTemplate.execute(tx -> {
+            Deployment deployment = deploymentRepository.findById(deploymentId).orElse(null);
+            if (deployment == null || deployment.getStatus() != DeploymentStatus.PENDING) {
+                return null;
+            }
+            eventPublisher.statusChanged(deployment, deployment.moveTo(DeploymentStatus.DEPLOYING));
+            return new ArrayList<>(deployment.getServices());
+        });
+        if (services == null) {
+            log.debug("Deployment {} is no longer pending, skipping rollout", deploymentId);
+            return;
+        }
+
+        try (DeploymentDeadlines.Deadline deadline = deadlines.start(deploymentId, DeploymentStatus.DEPLOYING)) {
+            boolean allRunning = startServices(services, deadline);
+            finish(deploymentId, allRunning ? DeploymentStatus.DEPLOYED : DeploymentStatus.FAILED);
+        } catch (Exception e) {
+            log.error("Failed to deploy {}", deploymentId, e);
+            finish(deploymentId, DeploymentStatus.FAILED);
+        }
+    }
+
+    /**
+     * Start services concurrently. A service is started as soon as all of its dependencies are
+     * running; if any dependency fails, the service is marked FAILED without being started.
+     *
+     * @return true if every service is running
+     */
+    private boolean startServices(List<io.nexusweaver.controlplane.domain.entity.Service> services,
+                                  DeploymentDeadlines.Deadline deadline) {
+        Map<String, CompletableFuture<Boolean>> started = new HashMap<>();
+        for (io.nexusweaver.controlplane.domain.entity.Service service : ServiceStartOrder.sort(services,
+                io.nexusweaver.controlplane.domain.entity.Service::getName,
+                io.nexusweaver.controlplane.domain.entity.Service::getDependencyNames)) {
+            CompletableFuture<?>[] dependencies = service.getDependencyNames().stream()
+                    .map(started::get)
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture<Boolean> result = CompletableFuture.allOf(dependencies)
+                    .thenApplyAsync(ignored -> {
+                        for (CompletableFuture<?> dependency : dependencies) {
+                            if (!Boolean.TRUE.equals(dependency.join())) {
+                                return skipService(service);
+                            }
+                        }
+                        return startService(service, deadline);
+                    }, serviceStartExecutor);
+            started.put(service.getName(), result);
+        }
+
+        boolean allRunning = true;
+        for (CompletableFuture<Boolean> result : started.values()) {
+            allRunning &= result.join();
+        }
+        return allRunning;
+    }
+
+    private boolean skipService(io.nexusweaver.controlplane.domain.entity.Service service) {
+        log.warn("Not starting service {}: a dependency failed to start", service.getName());
+        transitionTemplate.executeWithoutResult(tx -> serviceRepository.findById(service.getId())
+                .filter(s -> s.getStatus().canMoveTo(ServiceStatus.FAILED))
+                .ifPresent(s -> eventPublisher.serviceStatusChanged(s, s.moveTo(ServiceStatus.FAILED))));
+        return false;
+    }
+
+    private boolean startService(io.nexusweaver.controlplane.domain.entity.Service service,
+                                 DeploymentDeadlines.Deadline deadline) {
+        String nodeId = null;
+        String processId = null;
+        ServiceStatus status;
+        try {
+            nodeId = placementEngine.place(service);
+            // Start process on kernel
+            String node = nodeId;
+            processId = deadline.call(() -> kernelService.startProcess(
+                    node,
+                    service.getName(),
+                    service.getCommand() != null ? service.getCommand() :
+                            buildDefaultCommand(service),
+                    service.getMemoryLimit(),
+                    service.getCpuShares()
+            ));
+            status = ServiceStatus.RUNNING;
+        } catch (Exception e) {
+            log.error("Failed to start service {}", service.getName(), e);
+            status = ServiceStatus.FAILED;
+            placementEngine.release(service.getId());
+        }
+
+        String placedOn = nodeId;
+        String startedAs = processId;
+        ServiceStatus outcome = status;
+        transitionTemplate.executeWithoutResult(tx -> serviceRepository.findById(service.getId())
+                .filter(s -> s.getStatus().canMoveTo(outcome))
+                .ifPresent(s -> {
+                    s.setNodeId(placedOn);
+                    s.setProcessId(startedAs);
+                    eventPublisher.serviceStatusChanged(s, s.moveTo(outcome));
+                }));
+        return outcome == ServiceStatus.RUNNING;
+    }
+
+    private void finish(UUID deploymentId, DeploymentStatus status) {
+        transitionTemplate.executeWithoutResult(tx -> deploymentRepository.findById(deploymentId)
+                // A stop or delete issued mid-rollout wins over the rollout outcome
+                .filter(d -> d.getStatus() == DeploymentStatus.DEPLOYING)
+                .ifPresent(d -> eventPublisher.statusChanged(d, d.moveTo(status))));
+        log.info("Deployment {} finished with status {}", deploymentId, status);
+    }
+
+    /**
+     * Stop the running services of a TERMINATING deployment and mark it TERMINATED.
+     * If the timeout failed it first, it stays FAILED with the stops that went through recorded.
+     *
+     * @param deploymentId the deployment ID
+     * @param requestedAt when the stop was requested, for the phase duration metric
+     */
+    public void stop(UUID deploymentId, LocalDateTime requestedAt) {
+        List<ServiceProcess> running = transactionTemplate.execute(tx -> deploymentRepository.findById(deploymentId)
+                .filter(d -> d.getStatus() == DeploymentStatus.TERMINATING)
+                .map(d -> d.getServices().stream()
+                        .filter(s -> s.getProcessId() != null && s.getStatus() == ServiceStatus.RUNNING)
+                        .map(s -> new ServiceProcess(s.getId(), s.getNodeId(), s.getProcessId()))
+                        .toList())
+                .orElse(null));
+        if (running == null) {
+            log.debug("Deployment {} is no longer terminating, skipping stop", deploymentId);
+            return;
+        }
+
+        Set<UUID> failed;
+        try (DeploymentDeadlines.Deadline deadline = deadlines.start(deploymentId, DeploymentStatus.TERMINATING)) {
+            failed = processTeardown.stopAll(running, deadline);
+        }
+        Map<UUID, String> stopped = running.stream()
+                .collect(Collectors.toMap(ServiceProcess::serviceId, ServiceProcess::processId));
+
+        // Stops that went through are recorded even if the deadline has failed the deployment meanwhile
+        DeploymentStatus outcome = transitionTemplate.execute(tx -> deploymentRepository.findById(deploymentId)
+                .map(d -> {
+                    for (io.nexusweaver.controlplane.domain.entity.Service service : d.getServices()) {
+                        // Only the process stopped here, not one a later rollout started in its place
+                        if (!stopped.containsKey(service.getId())
+                                || !stopped.get(service.getId()).equals(service.getProcessId())) {
+                            continue;
+                        }
+                        ServiceStatus serviceOutcome = failed.contains(service.getId()) ? ServiceStatus.FAILED : ServiceStatus.STOPPED;
+                        if (service.getStatus().canMoveTo(serviceOutcome)) {
+                            eventPublisher.serviceStatusChanged(service, service.moveTo(serviceOutcome));
+                        }
+                    }
+                    if (d.getStatus() == DeploymentStatus.TERMINATING) {
+                        eventPublisher.statusChanged(d, d.moveTo(DeploymentStatus.TERMINATED));
+                    }
+                    return d.getStatus();
+                })
+                .orElse(null));
+        if (outcome != null) {
+            deploymentMetrics.recordPhase(DeploymentStatus.TERMINATING, outcome,
+                    Duration.between(requestedAt, LocalDateTime.now()).toNanos());
+        }
+        log.info("Deployment {} stopped with status {}", deploymentId, outcome);
+    }
+
+    /**
+     * Stop every process of a TERMINATING deployment and delete it with its services, and with
+     * its application if that is being deleted and this was its last deployment.
+     *
+     * @param deploymentId the deployment ID
+     * @param requestedAt when the delete was requested, for the phase duration metric
+     */
+    public void delete(UUID deploymentId, LocalDateTime requestedAt) {
+        List<ServiceProcess> processes = transactionTemplate.execute(tx -> deploymentRepository.findById(deploymentId)
+                .map(d -> d.getServices().stream()
+                        .filter(s -> s.getProcessId() != null)
+                        .map(s -> new ServiceProcess(s.getId(), s.getNodeId(), s.getProcessId()))
+                        .toList())
+                .orElse(null));
+        if (processes == null) {
+            log.debug("Deployment {} is already deleted", deploymentId);
+            return;
+        }
+
+        // In parallel per node, without holding a database connection; the delete goes ahead
+        // even if stops are cut off by the timeout
+        try (DeploymentDeadlines.Deadline deadline = deadlines.start(deploymentId, null)) {
+            processTeardown.stopAll(processes, deadline);
+        }
+        deploymentMetrics.recordPhase(DeploymentStatus.TERMINATING, DeploymentStatus.TERMINATED,
+                Duration.between(requestedAt, LocalDateTime.now()).toNanos());
+
+        transactionTemplate.executeWithoutResult(tx -> deploymentRepository.findById(deploymentId)
+                .ifPresent(d -> {
+                    serviceRepository.bulkDeleteByDeploymentId(deploymentId);
+                    deploymentRepository.bulkDeleteById(deploymentId);
+                    eventPublisher.deleted(d, d.getStatus());
+                    deleteApplicationIfDrained(d.getApplication().getId());
+                }));
+        log.info("Deployment {} deleted", deploymentId);
+    }
+
+    /**
+     * Remove an application being deleted once its last deployment is gone. The application row
+     * is locked first, so of two deletes racing for the last deployments, the later one sees both gone.
+     */
+    private void deleteApplicationIfDrained(UUID applicationId) {
+        applicationRepository.findByIdForUpdate(applicationId)
+                .filter(Application::isDeleting)
+                .filter(a -> !deploymentRepository.existsByApplicationId(applicationId))
+                .ifPresent(a -> {
+                    applicationRepository.bulkDeleteById(applicationId);
+                    eventPublisher.applicationDeleted(applicationId);
+                    log.info("Application {} deleted with its last deployment", applicationId);
+                });
+    }
+
+    private String buildDefaultCommand(io.nexusweaver.controlplane.domain.entity.Service service) {
+        // Build default command based on language
+        return switch (service.getLanguage().toLowerCase()) {
+            case "python" -> "python app.py";
+            case "node", "nodejs" -> "node index.js";
+            case "java" -> "java -jar app.jar";
+            default -> "/bin/sh -c 'echo No command specified'";
+        };
+    }
+}
@@ -5,23 +5,46 @@
 
 package io.nexusweaver.controlplane.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.nexusweaver.controlplane.api.dto.CursorPage;
 import io.nexusweaver.controlplane.api.dto.DeploymentRequest;
 import io.nexusweaver.controlplane.api.dto.DeploymentResponse;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
 import io.nexusweaver.controlplane.domain.entity.*;
+import io.nexusweaver.controlplane.event.DeploymentEventPublisher;
 import io.nexusweaver.controlplane.exception.ResourceNotFoundException;
 import io.nexusweaver.controlplane.mapper.DeploymentMapper;
 import io.nexusweaver.controlplane.repository.ApplicationRepository;
 import io.nexusweaver.controlplane.repository.DeploymentRepository;
+import io.nexusweaver.controlplane.repository.DeploymentSpecifications;
+import io.nexusweaver.controlplane.repository.DeploymentVersion;
 import io.nexusweaver.controlplane.service.DeploymentService;
-import io.nexusweaver.controlplane.service.KernelService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the deployment service.
@@ -34,54 +57,133 @@ public class DeploymentServiceImpl implements DeploymentService {
 
     private final DeploymentRepository deploymentRepository;
     private final ApplicationRepository applicationRepository;
-    private final KernelService kernelService;
+    private final DeploymentCommandDispatcher commandDispatcher;
+    private final TransitionTemplate transitionTemplate;
     private final DeploymentMapper deploymentMapper;
+    private final DeploymentEventPublisher eventPublisher;
+    private final NexusWeaverProperties properties;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     @Override
     public DeploymentResponse createDeployment(DeploymentRequest request) {
         log.info("Creating deployment for application: {}", request.getApplicationName());
+        return create(List.of(request)).get(0);
+    }
 
-        // Find or create application
-        Application application = applicationRepository.findByName(request.getApplicationName())
-                .orElseGet(() -> {
-                    Application newApp = Application.builder()
-                            .name(request.getApplicationName())
-                            .description(request.getDescription())
-                            .build();
-                    return applicationRepository.save(newApp);
-                });
-
-        // Create deployment
-        Deployment deployment = Deployment.builder()
-                .application(application)
-                .version(request.getVersion())
-                .status(DeploymentStatus.PENDING)
-                .build();
+    @Override
+    public List<DeploymentResponse> createDeployments(List<DeploymentRequest> requests) {
+        int maxBatchSize = properties.getDeployment().getMaxBatchSize();
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " deployments can be created at once");
+        }
+        log.info("Creating {} deployments", requests.size());
+        return create(requests);
+    }
 
-        // Create services
-        for (DeploymentRequest.ServiceDefinition serviceDef : request.getServices()) {
-            io.nexusweaver.controlplane.domain.entity.Service service = 
-                    io.nexusweaver.controlplane.domain.entity.Service.builder()
-                    .name(serviceDef.getName())
-                    .language(serviceDef.getLanguage())
-                    .port(serviceDef.getPort())
-                    .command(serviceDef.getCommand())
-                    .status(ServiceStatus.INIT)
-                    .memoryLimit(serviceDef.getLimits() != null ? 
-                            serviceDef.getLimits().getMemory() : 536870912L) // 512MB default
-                    .cpuShares(serviceDef.getLimits() != null ? 
-                            serviceDef.getLimits().getCpuShares() : 1024)
+    /**
+     * Persist the requested deployments with their services and queue them for rollout.
+     * Inserts are sent in JDBC batches per table when the transaction flushes.
+     */
+    private List<DeploymentResponse> create(List<DeploymentRequest> requests) {
+        // Reject unknown or cyclic service dependencies before anything is persisted
+        for (DeploymentRequest request : requests) {
+            ServiceStartOrder.sort(request.getServices(), DeploymentRequest.ServiceDefinition::getName,
+                    s -> s.getDependsOn() != null ? s.getDependsOn() : List.of());
+        }
+
+        Map<String, Application> applications = resolveApplications(requests);
+
+        List<Deployment> deployments = new ArrayList<>(requests.size());
+        for (DeploymentRequest request : requests) {
+            Deployment deployment = Deployment.builder()
+                    .application(applications.get(request.getApplicationName()))
+                    .version(request.getVersion())
+                    .status(DeploymentStatus.PENDING)
                     .build();
-            
-            deployment.addService(service);
+            for (DeploymentRequest.ServiceDefinition serviceDef : request.getServices()) {
+                deployment.addService(toService(serviceDef));
+            }
+            deployments.add(deployment);
         }
 
-        deployment = deploymentRepository.save(deployment);
+        deployments = deploymentRepository.saveAll(deployments);
+        deploymentRepository.flush();
 
-        // Start deployment asynchronously
-        startDeploymentAsync(deployment);
+        List<DeploymentResponse> responses = new ArrayList<>(deployments.size());
+        List<UUID> deploymentIds = new ArrayList<>(deployments.size());
+        for (Deployment deployment : deployments) {
+            eventPublisher.created(deployment);
+            responses.add(deploymentMapper.toResponse(deployment));
+            deploymentIds.add(deployment.getId());
+        }
 
-        return deploymentMapper.toResponse(deployment);
+        // Start deployments asynchronously
+        startDeploymentsAsync(deploymentIds);
+
+        return responses;
+    }
+
+    /**
+     * Find or create the application of every request, looking all of them up in one query.
+     *
+     * @return applications keyed by name
+     */
+    private Map<String, Application> resolveApplications(List<DeploymentRequest> requests) {
+        Map<String, Application> applications = new HashMap<>();
+        if (requests.size() == 1) {
+            applicationRepository.findByName(requests.get(0).getApplicationName())
+                    .ifPresent(application -> applications.put(application.getName(), application));
+        } else {
+            Set<String> names = requests.stream()
+                    .map(DeploymentRequest::getApplicationName)
+                    .collect(Collectors.toSet());
+            for (Application application : applicationRepository.findByNameIn(names)) {
+                applications.putIfAbsent(application.getName(), application);
+            }
+        }
+
+        // A share lock keeps a concurrent application delete from missing these deployments;
+        // the refresh reads the flag it may have committed rather than a cached copy
+        for (Application application : applications.values()) {
+            entityManager.refresh(application, LockModeType.PESSIMISTIC_READ);
+            if (application.isDeleting()) {
+                throw new IllegalStateException("Application " + application.getName() + " is being deleted");
+            }
+        }
+
+        List<Application> created = new ArrayList<>();
+        for (DeploymentRequest request : requests) {
+            applications.computeIfAbsent(request.getApplicationName(), name -> {
+                Application application = Application.builder()
+                        .name(name)
+                        .description(request.getDescription())
+                        .build();
+                created.add(application);
+                return application;
+            });
+        }
+        if (!created.isEmpty()) {
+            applicationRepository.saveAll(created);
+        }
+        return applications;
+    }
+
+    private static io.nexusweaver.controlplane.domain.entity.Service toService(
+            DeploymentRequest.ServiceDefinition serviceDef) {
+        return io.nexusweaver.controlplane.domain.entity.Service.builder()
+                .name(serviceDef.getName())
+                .language(serviceDef.getLanguage())
+                .port(serviceDef.getPort())
+                .command(serviceDef.getCommand())
+                .status(ServiceStatus.INIT)
+                .memoryLimit(serviceDef.getLimits() != null ? 
+                        serviceDef.getLimits().getMemory() : 536870912L) // 512MB default
+                .cpuShares(serviceDef.getLimits() != null ? 
+                        serviceDef.getLimits().getCpuShares() : 1024)
+                .dependsOn(serviceDef.getDependsOn() != null && !serviceDef.getDependsOn().isEmpty() ?
+                        String.join(",", serviceDef.getDependsOn()) : null)
+                .build();
     }
 
     @Override
@@ -92,150 +194,172 @@ public class DeploymentServiceImpl implements DeploymentService {
     }
 
     @Override
-    public List<DeploymentResponse> listDeployments(UUID applicationId, String status) {
-        List<Deployment> deployments;
-        
-        if (applicationId != null && status != null) {
-            deployments = deploymentRepository.findByApplicationIdAndStatus(
-                    applicationId, DeploymentStatus.valueOf(status.toUpperCase()));
-        } else if (applicationId != null) {
-            deployments = deploymentRepository.findByApplicationId(applicationId);
-        } else if (status != null) {
-            deployments = deploymentRepository.findByStatus(
-                    DeploymentStatus.valueOf(status.toUpperCase()));
-        } else {
-            deployments = deploymentRepository.findAll();
-        }
+    @Transactional(readOnly = true)
+    public String getDeploymentVersion(UUID deploymentId) {
+        return deploymentRepository.findVersionById(deploymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId))
+                .asString();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<DeploymentResponse> listDeployments(UUID applicationId, String status,
+                                                          String cursor, Integer limit, String sort) {
+        int pageSize = KeysetCursor.pageSize(limit, properties.getApi());
+        Sort.Direction direction = KeysetCursor.parseSort(sort);
+        DeploymentStatus statusFilter = status != null ? parseStatus(status) : null;
+
+        // Seek past the last row of the previous page instead of counting through an offset
+        KeysetScrollPosition position = cursor == null ? ScrollPosition.keyset() : seekAfter(KeysetCursor.decode(cursor));
+        Window<Deployment> window = deploymentRepository.findBy(
+                DeploymentSpecifications.matching(applicationId, statusFilter),
+                query -> query.sortBy(Sort.by(direction, KeysetCursor.SORT_PROPERTY, "id"))
+                        .limit(pageSize)
+                        .scroll(position));
 
-        return deployments.stream()
+        List<DeploymentResponse> items = window.stream()
                 .map(deploymentMapper::toResponse)
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Deployment last = window.getContent().get(window.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor);
     }
 
     @Override
-    public void deleteDeployment(UUID deploymentId) {
-        Deployment deployment = deploymentRepository.findById(deploymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId));
+    @Transactional(readOnly = true)
+    public String getDeploymentsVersion(UUID applicationId, String status, String cursor, Integer limit, String sort) {
+        int pageSize = KeysetCursor.pageSize(limit, properties.getApi());
+        Sort.Direction direction = KeysetCursor.parseSort(sort);
+        DeploymentStatus statusFilter = status != null ? parseStatus(status) : null;
 
-        // Stop all services
-        deployment.setStatus(DeploymentStatus.TERMINATING);
-        deploymentRepository.save(deployment);
-
-        // Stop services in kernel
-        for (io.nexusweaver.controlplane.domain.entity.Service service : deployment.getServices()) {
-            if (service.getProcessId() != null) {
-                try {
-                    kernelService.stopProcess(service.getNodeId(), service.getProcessId());
-                } catch (Exception e) {
-                    log.error("Failed to stop process {} on node {}", 
-                            service.getProcessId(), service.getNodeId(), e);
-                }
-            }
+        // The same rows the page is read from, one past the end to tell whether another page follows
+        Specification<Deployment> filter = DeploymentSpecifications.matching(applicationId, statusFilter);
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            filter = filter.and(DeploymentSpecifications.after(after.createdAt(), after.id(), direction));
         }
+        List<DeploymentVersion> versions = DeploymentSpecifications.versions(entityManager, filter, direction, pageSize + 1);
 
-        // Delete deployment
-        deploymentRepository.delete(deployment);
-        log.info("Deployment {} deleted", deploymentId);
+        StringBuilder version = new StringBuilder();
+        for (DeploymentVersion deployment : versions.subList(0, Math.min(pageSize, versions.size()))) {
+            version.append(deployment.asString()).append(';');
+        }
+        if (versions.size() > pageSize) {
+            DeploymentVersion last = versions.get(pageSize - 1);
+            version.append(new KeysetCursor(last.createdAt(), last.id()).encode());
+        }
+        return version.toString();
     }
 
     @Override
-    public DeploymentResponse stopDeployment(UUID deploymentId) {
-        Deployment deployment = deploymentRepository.findById(deploymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId));
-
-        deployment.setStatus(DeploymentStatus.TERMINATING);
-        
-        // Stop all services
-        for (io.nexusweaver.controlplane.domain.entity.Service service : deployment.getServices()) {
-            if (service.getProcessId() != null && service.getStatus() == ServiceStatus.RUNNING) {
-                try {
-                    kernelService.stopProcess(service.getNodeId(), service.getProcessId());
-                    service.setStatus(ServiceStatus.STOPPED);
-                } catch (Exception e) {
-                    log.error("Failed to stop service {}", service.getName(), e);
-                    service.setStatus(ServiceStatus.FAILED);
-                }
+    @Transactional(readOnly = true)
+    public void exportDeployments(OutputStream out) throws IOException {
+        // One line per deployment; the generator buffers and flushes to the response as it fills
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator((String) null);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long exported = 0;
+        try (Stream<Deployment> deployments = deploymentRepository.streamAllWithServices()) {
+            for (Deployment deployment : (Iterable<Deployment>) deployments::iterator) {
+                writer.writeValue(generator, deploymentMapper.toResponse(deployment));
+                generator.writeRaw('\n');
+                // Cascades to the services; nothing written stays in the persistence context
+                entityManager.detach(deployment);
+                exported++;
             }
         }
+        generator.flush();
+        log.info("Exported {} deployments", exported);
+    }
 
-        deployment.setStatus(DeploymentStatus.TERMINATED);
-        deployment = deploymentRepository.save(deployment);
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteDeployment(UUID deploymentId) {
+        transitionTemplate.executeWithoutResult(tx -> {
+            Deployment deployment = deploymentRepository.findById(deploymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId));
 
-        return deploymentMapper.toResponse(deployment);
+            // Nothing finishes into the deployment while its processes are stopped
+            terminate(deployment);
+            commandDispatcher.enqueue(List.of(deploymentId), DeploymentCommandType.DELETE);
+        });
+        log.info("Deployment {} queued for deletion", deploymentId);
     }
 
     @Override
-    public DeploymentResponse startDeployment(UUID deploymentId) {
-        Deployment deployment = deploymentRepository.findById(deploymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeploymentResponse stopDeployment(UUID deploymentId) {
+        return transitionTemplate.execute(tx -> {
+            Deployment deployment = deploymentRepository.findById(deploymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId));
 
-        if (deployment.getStatus() != DeploymentStatus.TERMINATED) {
-            throw new IllegalStateException("Can only start terminated deployments");
-        }
+            if (terminate(deployment)) {
+                commandDispatcher.enqueue(List.of(deploymentId), DeploymentCommandType.STOP);
+            }
+            return deploymentMapper.toResponse(deployment);
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeploymentResponse startDeployment(UUID deploymentId) {
+        return transitionTemplate.execute(tx -> {
+            Deployment deployment = deploymentRepository.findById(deploymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Deployment not found: " + deploymentId));
 
-        deployment.setStatus(DeploymentStatus.DEPLOYING);
-        deployment = deploymentRepository.save(deployment);
+            if (deployment.getStatus() != DeploymentStatus.TERMINATED) {
+                throw new IllegalStateException("Can only start terminated deployments");
+            }
+            eventPublisher.statusChanged(deployment, deployment.moveTo(DeploymentStatus.PENDING));
 
-        // Start deployment asynchronously
-        startDeploymentAsync(deployment);
+            // Start deployment asynchronously
+            startDeploymentAsync(deployment);
 
-        return deploymentMapper.toResponse(deployment);
+            return deploymentMapper.toResponse(deployment);
+        });
     }
 
+    /**
+     * Queue a rollout in the outbox, committed together with the deployment.
+     * The deployment engine picks it up once the transaction commits; the request
+     * thread never waits on kernels.
+     */
     private void startDeploymentAsync(Deployment deployment) {
-        // In a real implementation, this would be done asynchronously
-        // For now, we'll do it synchronously
+        startDeploymentsAsync(List.of(deployment.getId()));
+    }
+
+    private void startDeploymentsAsync(List<UUID> deploymentIds) {
+        commandDispatcher.enqueue(deploymentIds, DeploymentCommandType.DEPLOY);
+    }
+
+    /**
+     * Mark a deployment TERMINATING, unless it already is or has terminated.
+     *
+     * @return true if the status changed
+     */
+    private boolean terminate(Deployment deployment) {
+        if (!deployment.getStatus().canMoveTo(DeploymentStatus.TERMINATING)
+                || deployment.getStatus() == DeploymentStatus.TERMINATING) {
+            return false;
+        }
+        eventPublisher.statusChanged(deployment, deployment.moveTo(DeploymentStatus.TERMINATING));
+        return true;
+    }
+
+    private static DeploymentStatus parseStatus(String status) {
         try {
-            deployment.setStatus(DeploymentStatus.DEPLOYING);
-            
-            for (io.nexusweaver.controlplane.domain.entity.Service service : deployment.getServices()) {
-                try {
-                    // Select a node (use kernel VM IP from environment)
-                    String nodeId = System.getenv("KERNEL_HOST");
-                    if (nodeId == null || nodeId.isEmpty()) {
-                        nodeId = "localhost"; // fallback for local development
-                    }
-                    service.setNodeId(nodeId);
-                    
-                    // Start process on kernel
-                    String processId = kernelService.startProcess(
-                            nodeId,
-                            service.getName(),
-                            service.getCommand() != null ? service.getCommand() : 
-                                    buildDefaultCommand(service),
-                            service.getMemoryLimit(),
-                            service.getCpuShares()
-                    );
-                    
-                    service.setProcessId(processId);
-                    service.setStatus(ServiceStatus.RUNNING);
-                } catch (Exception e) {
-                    log.error("Failed to start service {}", service.getName(), e);
-                    service.setStatus(ServiceStatus.FAILED);
-                }
-            }
-            
-            // Check if all services started successfully
-            boolean allRunning = deployment.getServices().stream()
-                    .allMatch(s -> s.getStatus() == ServiceStatus.RUNNING);
-            
-            deployment.setStatus(allRunning ? DeploymentStatus.DEPLOYED : DeploymentStatus.FAILED);
-            deploymentRepository.save(deployment);
-            
-        } catch (Exception e) {
-            log.error("Failed to deploy {}", deployment.getId(), e);
-            deployment.setStatus(DeploymentStatus.FAILED);
-            deploymentRepository.save(deployment);
+            return DeploymentStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown deployment status: " + status);
         }
     }
 
-    private String buildDefaultCommand(io.nexusweaver.controlplane.domain.entity.Service service) {
-        // Build default command based on language
-        return switch (service.getLanguage().toLowerCase()) {
-            case "python" -> "python app.py";
-            case "node", "nodejs" -> "node index.js";
-            case "java" -> "java -jar app.jar";
-            default -> "/bin/sh -c 'echo No command specified'";
-        };
+    private static KeysetScrollPosition seekAfter(KeysetCursor cursor) {
+        return ScrollPosition.forward(Map.of(KeysetCursor.SORT_PROPERTY, cursor.createdAt(), "id", cursor.id()));
     }
-}
\ No newline at end of file
+}
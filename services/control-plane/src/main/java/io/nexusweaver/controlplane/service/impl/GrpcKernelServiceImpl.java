@@ -0,0 +1,242 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.service.KernelService;
+import io.nexusweaver.kernel.v1.GetProcessRequest;
+import io.nexusweaver.kernel.v1.HealthCheckRequest;
+import io.nexusweaver.kernel.v1.HealthCheckResponse;
+import io.nexusweaver.kernel.v1.KernelServiceGrpc;
+import io.nexusweaver.kernel.v1.ListProcessesRequest;
+import io.nexusweaver.kernel.v1.ProcessInfo;
+import io.nexusweaver.kernel.v1.ProcessState;
+import io.nexusweaver.kernel.v1.ResourceLimits;
+import io.nexusweaver.kernel.v1.StartProcessRequest;
+import io.nexusweaver.kernel.v1.StartProcessResponse;
+import io.nexusweaver.kernel.v1.StopProcessRequest;
+import io.nexusweaver.kernel.v1.StreamLogsRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of kernel service using the gRPC API defined in services/api/v1/kernel.proto.
+ * Each node gets one long-lived channel; all calls to that node are multiplexed over it
+ * and carry a deadline of {@code requestTimeout}.
+ *
+ * No server in this repository implements that API yet. The Go kernel's gRPC port serves
+ * services/kernel-go/kernel.proto, which has the same package and service name but different
+ * messages (e.g. {@code StartProcessRequest} and {@code HealthCheckResponse}) and no
+ * {@code GetProcess} or {@code StreamLogs}, so calls to it fail or are misread.
+ *
+ * Enabled with {@code nexusweaver.control-plane.kernel.transport=grpc}.
+ */
+@Service
+@Qualifier(CircuitBreakingKernelService.KERNEL_TRANSPORT)
+@ConditionalOnProperty(prefix = "nexusweaver.control-plane.kernel", name = "transport", havingValue = "grpc")
+@RequiredArgsConstructor
+@Slf4j
+public class GrpcKernelServiceImpl implements KernelService {
+
+    private final NexusWeaverProperties properties;
+
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warnAboutServer() {
+        log.warn("Using the gRPC kernel transport (services/api/v1/kernel.proto); the Go kernel in this "
+                + "repository does not serve that API, use transport=tcp with it");
+    }
+
+    @Override
+    public String startProcess(String nodeId, String processName, String command,
+                              Long memoryLimit, Integer cpuShares) {
+        log.info("Starting process {} on node {}", processName, nodeId);
+
+        ResourceLimits.Builder limits = ResourceLimits.newBuilder();
+        if (memoryLimit != null) {
+            limits.setMemoryBytes(memoryLimit);
+        }
+        if (cpuShares != null) {
+            limits.setCpuShares(cpuShares);
+        }
+        StartProcessRequest request = StartProcessRequest.newBuilder()
+                .setProcess(ProcessInfo.newBuilder()
+                        .setId(UUID.randomUUID().toString().substring(0, 8))
+                        .setName(processName)
+                        .setCommand(command)
+                        .setLimits(limits))
+                .build();
+
+        try {
+            StartProcessResponse response = stub(nodeId).startProcess(request);
+            String processId = response.getProcess().getId().isEmpty()
+                    ? request.getProcess().getId() : response.getProcess().getId();
+            log.info("Process {} started successfully on node {}", processId, nodeId);
+            return processId;
+        } catch (StatusRuntimeException e) {
+            log.error("Failed to start process on node {}: {}", nodeId, e.getStatus());
+            throw new RuntimeException("Failed to start process", e);
+        }
+    }
+
+    @Override
+    public void stopProcess(String nodeId, String processId) {
+        log.info("Stopping process {} on node {}", processId, nodeId);
+
+        try {
+            stub(nodeId).stopProcess(StopProcessRequest.newBuilder()
+                    .setProcessId(processId)
+                    .build());
+        } catch (StatusRuntimeException e) {
+            log.error("Failed to stop process {} on node {}: {}", processId, nodeId, e.getStatus());
+            throw new RuntimeException("Failed to stop process", e);
+        }
+    }
+
+    @Override
+    public ProcessStatus getProcessStatus(String nodeId, String processId) {
+        try {
+            ProcessInfo process = stub(nodeId).getProcess(GetProcessRequest.newBuilder()
+                    .setProcessId(processId)
+                    .build()).getProcess();
+            return toProcessStatus(process.getState());
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return ProcessStatus.TERMINATED;
+            }
+            log.error("Failed to get process status: {}", e.getStatus());
+            return ProcessStatus.FAILED;
+        }
+    }
+
+    @Override
+    public Map<String, ProcessStatus> listProcesses(String nodeId) {
+        try {
+            Map<String, ProcessStatus> processes = new HashMap<>();
+            for (ProcessInfo process : stub(nodeId).listProcesses(ListProcessesRequest.getDefaultInstance())
+                    .getProcessesList()) {
+                processes.put(process.getId(), toProcessStatus(process.getState()));
+            }
+            return processes;
+        } catch (StatusRuntimeException e) {
+            log.error("Failed to list processes on node {}: {}", nodeId, e.getStatus());
+            throw new RuntimeException("Failed to list processes", e);
+        }
+    }
+
+    @Override
+    public boolean isNodeHealthy(String nodeId) {
+        try {
+            HealthCheckResponse response = stub(nodeId).healthCheck(HealthCheckRequest.getDefaultInstance());
+            return response.getStatus() == HealthCheckResponse.ServingStatus.SERVING;
+        } catch (StatusRuntimeException e) {
+            log.warn("Health check failed for node {}: {}", nodeId, e.getStatus());
+            return false;
+        }
+    }
+
+    @Override
+    public LogSubscription streamLogs(String nodeId, String processId, int tailLines, LogListener listener) {
+        log.debug("Streaming logs of process {} on node {}", processId, nodeId);
+
+        StreamLogsRequest request = StreamLogsRequest.newBuilder()
+                .setProcessId(processId)
+                .setFollow(true)
+                .setTailLines(tailLines)
+                .build();
+        AtomicReference<ClientCallStreamObserver<StreamLogsRequest>> call = new AtomicReference<>();
+        // No deadline: a followed stream stays open until the process exits or the caller cancels
+        KernelServiceGrpc.newStub(channel(nodeId)).streamLogs(request,
+                new ClientResponseObserver<StreamLogsRequest, io.nexusweaver.kernel.v1.LogEntry>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<StreamLogsRequest> requestStream) {
+                        call.set(requestStream);
+                    }
+
+                    @Override
+                    public void onNext(io.nexusweaver.kernel.v1.LogEntry entry) {
+                        listener.onEntry(new LogEntry(Instant.ofEpochSecond(0, entry.getTimestamp()),
+                                entry.getLevel(), entry.getSource(), entry.getMessage()));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        listener.onClosed(Status.fromThrowable(t).getCode() == Status.Code.CANCELLED ? null : t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        listener.onClosed(null);
+                    }
+                });
+        return () -> call.get().cancel("Log stream closed by control plane", null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(ManagedChannel::shutdown);
+        for (ManagedChannel channel : channels.values()) {
+            try {
+                if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                    channel.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                channel.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        channels.clear();
+    }
+
+    private KernelServiceGrpc.KernelServiceBlockingStub stub(String nodeId) {
+        return KernelServiceGrpc.newBlockingStub(channel(nodeId))
+                .withDeadlineAfter(properties.getKernel().getRequestTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    private ManagedChannel channel(String nodeId) {
+        return channels.computeIfAbsent(nodeId, id -> {
+            // For now, assume nodeId is the hostname and use the gRPC port
+            String host = id.equals("localhost") ? "127.0.0.1" : id;
+            NexusWeaverProperties.Kernel kernel = properties.getKernel();
+            log.debug("Opening gRPC channel to {}:{}", host, kernel.getGrpcPort());
+            return ManagedChannelBuilder.forAddress(host, kernel.getGrpcPort())
+                    .usePlaintext()
+                    .keepAliveTime(kernel.getKeepAliveTime(), TimeUnit.MILLISECONDS)
+                    .idleTimeout(kernel.getIdleTimeout(), TimeUnit.MILLISECONDS)
+                    .build();
+        });
+    }
+
+    private static ProcessStatus toProcessStatus(ProcessState state) {
+        return switch (state) {
+            case PROCESS_STATE_INIT -> ProcessStatus.INIT;
+            case PROCESS_STATE_RUNNING -> ProcessStatus.RUNNING;
+            case PROCESS_STATE_STOPPED -> ProcessStatus.STOPPED;
+            case PROCESS_STATE_FAILED -> ProcessStatus.FAILED;
+            default -> ProcessStatus.TERMINATED;
+        };
+    }
+}
@@ -6,35 +6,55 @@
 package io.nexusweaver.controlplane.service.impl;
 
 import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.kernel.FrameNotSentException;
+import io.nexusweaver.controlplane.kernel.KernelCodec;
+import io.nexusweaver.controlplane.kernel.KernelConnection;
+import io.nexusweaver.controlplane.kernel.KernelConnectionPool;
+import io.nexusweaver.controlplane.kernel.ProcessSnapshotCache;
 import io.nexusweaver.controlplane.service.KernelService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
-import java.net.Socket;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.nexusweaver.controlplane.kernel.KernelProtocol.*;
 
 /**
  * Implementation of kernel service using TCP communication.
+ * Requests are sent over persistent connections leased from {@link KernelConnectionPool} and
+ * encoded and decoded in the connection's buffers by {@link KernelCodec};
+ * process status checks are answered from a short-lived per-node {@link ProcessSnapshotCache}.
  * This will be replaced with gRPC in the future.
  */
 @Service
-@RequiredArgsConstructor
+@Qualifier(CircuitBreakingKernelService.KERNEL_TRANSPORT)
+@ConditionalOnProperty(prefix = "nexusweaver.control-plane.kernel", name = "transport", havingValue = "tcp", matchIfMissing = true)
 @Slf4j
 public class KernelServiceImpl implements KernelService {
 
+    private final KernelConnectionPool connectionPool;
     private final NexusWeaverProperties properties;
+    private final ProcessSnapshotCache processSnapshots;
+    // Nodes running a kernel that predates MSG_START_PROCESS_BINARY
+    private final Set<String> textOnlyNodes = ConcurrentHashMap.newKeySet();
+    // Nodes running a kernel that predates MSG_LIST_PROCESSES_BINARY
+    private final Set<String> textListNodes = ConcurrentHashMap.newKeySet();
 
-    // Message types matching kernel protocol
-    private static final int MSG_START_PROCESS = 1;
-    private static final int MSG_STOP_PROCESS = 2;
-    private static final int MSG_GET_PROCESS = 3;
-    private static final int MSG_LIST_PROCESSES = 4;
-    private static final int MSG_HEALTH_CHECK = 5;
+    public KernelServiceImpl(KernelConnectionPool connectionPool, NexusWeaverProperties properties) {
+        this.connectionPool = connectionPool;
+        this.properties = properties;
+        this.processSnapshots = new ProcessSnapshotCache(properties.getKernel().getProcessSnapshotTtl(),
+                this::fetchProcesses);
+    }
 
     @Override
     public String startProcess(String nodeId, String processName, String command, 
@@ -42,16 +62,26 @@ public class KernelServiceImpl implements KernelService {
         log.info("Starting process {} on node {}", processName, nodeId);
         
         String processId = UUID.randomUUID().toString().substring(0, 8);
-        String message = String.format("%s %s %s", processId, processName, command);
         
         try {
-            String response = sendMessage(nodeId, MSG_START_PROCESS, message);
-            if (response.contains("Process started")) {
-                log.info("Process {} started successfully on node {}", processId, nodeId);
-                return processId;
-            } else {
-                throw new RuntimeException("Failed to start process: " + response);
+            String startedAs = textOnlyNodes.contains(nodeId) ? null : call(nodeId, MSG_START_PROCESS_BINARY,
+                    KernelCodec.startProcess(processId, processName, command,
+                            memoryLimit != null ? memoryLimit : properties.getProcess().getDefaultMemoryLimit(),
+                            cpuShares != null ? cpuShares : properties.getProcess().getDefaultCpuShares()),
+                    KernelServiceImpl::startReply);
+            if (startedAs == null) {
+                if (textOnlyNodes.add(nodeId)) {
+                    log.info("Node {} does not accept binary start frames, using the text format", nodeId);
+                }
+                startedAs = call(nodeId, MSG_START_PROCESS,
+                        KernelCodec.startProcessText(processId, processName, command), KernelServiceImpl::startReply);
+            }
+            processSnapshots.invalidate(nodeId);
+            if (startedAs.isEmpty()) {
+                startedAs = processId;
             }
+            log.info("Process {} started successfully on node {}", startedAs, nodeId);
+            return startedAs;
         } catch (Exception e) {
             log.error("Failed to start process on node {}", nodeId, e);
             throw new RuntimeException("Failed to start process", e);
@@ -63,9 +93,11 @@ public class KernelServiceImpl implements KernelService {
         log.info("Stopping process {} on node {}", processId, nodeId);
         
         try {
-            String response = sendMessage(nodeId, MSG_STOP_PROCESS, processId);
-            if (!response.contains("Process stopped")) {
-                log.warn("Unexpected response when stopping process: {}", response);
+            String unexpected = call(nodeId, MSG_STOP_PROCESS, KernelCodec.text(processId),
+                    body -> KernelCodec.isStopped(body) ? null : KernelCodec.toString(body));
+            processSnapshots.invalidate(nodeId);
+            if (unexpected != null) {
+                log.warn("Unexpected response when stopping process: {}", unexpected);
             }
         } catch (Exception e) {
             log.error("Failed to stop process {} on node {}", processId, nodeId, e);
@@ -76,71 +108,101 @@ public class KernelServiceImpl implements KernelService {
     @Override
     public ProcessStatus getProcessStatus(String nodeId, String processId) {
         try {
-            String response = sendMessage(nodeId, MSG_LIST_PROCESSES, "");
-            // Parse response to find process status
-            // For now, return RUNNING if process is in the list
-            if (response.contains(processId)) {
-                return ProcessStatus.RUNNING;
-            }
-            return ProcessStatus.TERMINATED;
+            // One listing per node serves every status check until the snapshot expires
+            return processSnapshots.get(nodeId).getOrDefault(processId, ProcessStatus.TERMINATED);
         } catch (Exception e) {
             log.error("Failed to get process status", e);
             return ProcessStatus.FAILED;
         }
     }
 
+    @Override
+    public Map<String, ProcessStatus> listProcesses(String nodeId) {
+        try {
+            return processSnapshots.get(nodeId);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list processes on node " + nodeId, e);
+        }
+    }
+
     @Override
     public boolean isNodeHealthy(String nodeId) {
         try {
-            String response = sendMessage(nodeId, MSG_HEALTH_CHECK, "");
-            return response.contains("OK");
+            return call(nodeId, MSG_HEALTH_CHECK, KernelCodec.EMPTY, KernelCodec::isOk);
         } catch (Exception e) {
-            log.error("Health check failed for node {}", nodeId, e);
+            log.warn("Health check failed for node {}: {}", nodeId, e.getMessage());
             return false;
         }
     }
 
-    private String sendMessage(String nodeId, int messageType, String data) throws IOException {
-        // For now, assume nodeId is the hostname and use default port
-        String host = nodeId.equals("localhost") ? "127.0.0.1" : nodeId;
-        int port = properties.getKernel().getDefaultPort();
-        
-        try (Socket socket = new Socket(host, port)) {
-            socket.setSoTimeout(properties.getKernel().getRequestTimeout());
-            
-            // Send message
-            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-            byte[] dataBytes = data.getBytes(StandardCharsets.UTF_8);
-            
-            // Write message header (type + length)
-            ByteBuffer header = ByteBuffer.allocate(8);
-            header.order(ByteOrder.LITTLE_ENDIAN);
-            header.putInt(messageType);
-            header.putInt(dataBytes.length);
-            out.write(header.array());
-            
-            // Write message data
-            if (dataBytes.length > 0) {
-                out.write(dataBytes);
+    /**
+     * List the processes of a node, in the binary format unless its kernel only knows the text one.
+     */
+    private Map<String, ProcessStatus> fetchProcesses(String nodeId) throws IOException {
+        if (!textListNodes.contains(nodeId)) {
+            Map<String, ProcessStatus> processes = call(nodeId, MSG_LIST_PROCESSES_BINARY, KernelCodec.EMPTY,
+                    KernelCodec::parseBinaryProcessList);
+            if (processes != null) {
+                return processes;
+            }
+            if (textListNodes.add(nodeId)) {
+                log.info("Node {} does not answer binary list frames, using the text format", nodeId);
             }
-            out.flush();
-            
-            // Read response
-            DataInputStream in = new DataInputStream(socket.getInputStream());
-            byte[] responseHeader = new byte[8];
-            in.readFully(responseHeader);
-            
-            ByteBuffer headerBuffer = ByteBuffer.wrap(responseHeader);
-            headerBuffer.order(ByteOrder.LITTLE_ENDIAN);
-            int responseType = headerBuffer.getInt();
-            int responseLength = headerBuffer.getInt();
-            
-            byte[] responseData = new byte[responseLength];
-            if (responseLength > 0) {
-                in.readFully(responseData);
+        }
+        return call(nodeId, MSG_LIST_PROCESSES, KernelCodec.EMPTY, KernelCodec::parseProcessList);
+    }
+
+    /**
+     * Reply to a start frame: the kernel's process ID, an empty string if the kernel confirmed the
+     * start without one, or {@code null} if the kernel does not know the binary start frame.
+     */
+    private static String startReply(ByteBuffer body) {
+        if (KernelCodec.isUnknownMessageType(body)) {
+            return null;
+        }
+        String processId = KernelCodec.startedProcessId(body);
+        if (processId == null) {
+            throw new IllegalStateException("Failed to start process: " + KernelCodec.toString(body));
+        }
+        return processId;
+    }
+
+    /**
+     * Exchange one frame with a node over a pooled connection and decode the reply
+     * while the connection's reply buffer is still valid.
+     */
+    private <T> T call(String nodeId, int messageType, KernelCodec.Payload payload,
+                       KernelCodec.Reply<T> reply) throws IOException {
+        KernelConnection connection = connectionPool.borrow(nodeId);
+        ByteBuffer response;
+        try {
+            response = connection.exchange(messageType, payload);
+        } catch (EOFException | SocketException e) {
+            connectionPool.invalidate(connection);
+            // A drop after the frame went out may come after the kernel acted on it, so only
+            // idempotent requests are resent then; a start could otherwise run a second process.
+            // A call cancelled by interrupting its thread is never resent.
+            if (!connection.isReused() || Thread.currentThread().isInterrupted()
+                    || !(e instanceof FrameNotSentException || isIdempotent(messageType))) {
+                throw e;
+            }
+            // The kernel closed a pooled connection before reading our frame; retry once on a fresh one
+            log.debug("Pooled connection to node {} was closed by peer, reconnecting", nodeId);
+            connection = connectionPool.borrow(nodeId);
+            try {
+                response = connection.exchange(messageType, payload);
+            } catch (IOException | RuntimeException retryFailure) {
+                connectionPool.invalidate(connection);
+                throw retryFailure;
             }
-            
-            return new String(responseData, StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            connectionPool.invalidate(connection);
+            throw e;
+        }
+        try {
+            return reply.read(response);
+        } finally {
+            connectionPool.release(connection);
         }
     }
-}
\ No newline at end of file
+}
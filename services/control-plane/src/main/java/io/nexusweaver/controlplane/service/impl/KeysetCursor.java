@@ -0,0 +1,78 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a listing ordered by {@code (createdAt, id)}, encoded as an opaque URL-safe string.
+ *
+ * @param createdAt creation time of the last item returned
+ * @param id ID of the last item returned
+ */
+record KeysetCursor(LocalDateTime createdAt, UUID id) {
+
+    /**
+     * The only sort property that listings can be paginated by; {@code id} breaks ties.
+     */
+    static final String SORT_PROPERTY = "createdAt";
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Resolve the requested page size against the configured default and maximum.
+     */
+    static int pageSize(Integer requested, NexusWeaverProperties.Api api) {
+        if (requested == null) {
+            return api.getDefaultPageSize();
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return Math.min(requested, api.getMaxPageSize());
+    }
+
+    /**
+     * Parse a {@code property[,asc|desc]} sort expression; only {@value #SORT_PROPERTY} is supported.
+     *
+     * @param sort the sort expression, or {@code null} for newest first
+     * @return the sort direction
+     */
+    static Sort.Direction parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.Direction.DESC;
+        }
+        String[] parts = sort.split(",");
+        if (!parts[0].trim().equals(SORT_PROPERTY) || parts.length > 2) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort + " (expected createdAt[,asc|desc])");
+        }
+        return parts.length == 2 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.DESC;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.domain.entity.DeploymentStatus;
+import io.nexusweaver.controlplane.domain.entity.ServiceStatus;
+import io.nexusweaver.controlplane.event.DeploymentEventPublisher;
+import io.nexusweaver.controlplane.event.ServiceStatusEvent;
+import io.nexusweaver.controlplane.repository.ServiceProcessState;
+import io.nexusweaver.controlplane.repository.ServiceRepository;
+import io.nexusweaver.controlplane.service.KernelService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings the recorded status of services in line with the processes kernels actually run.
+ *
+ * Every {@code interval} each node hosting a service of an active deployment is listed once,
+ * and services whose process has died, stopped or come back are moved to the matching status
+ * with bulk updates of at most {@code batchSize} rows. The nodes of one cycle are spread
+ * evenly over the ticks of the interval, so neither the database nor the kernels see a burst.
+ */
+@Component
+@ConditionalOnProperty(prefix = "nexusweaver.control-plane.reconciler", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessReconciler {
+
+    private static final Set<DeploymentStatus> INACTIVE_DEPLOYMENTS =
+            EnumSet.of(DeploymentStatus.TERMINATED, DeploymentStatus.FAILED);
+    private static final Set<ServiceStatus> RECONCILED_STATUSES =
+            EnumSet.of(ServiceStatus.RUNNING, ServiceStatus.FAILED);
+
+    private final ServiceRepository serviceRepository;
+    private final KernelService kernelService;
+    private final TransactionTemplate transactionTemplate;
+    private final DeploymentEventPublisher eventPublisher;
+    private final NexusWeaverProperties properties;
+
+    // Only touched from the scheduled tick, which never overlaps itself
+    private final Deque<String> pendingNodes = new ArrayDeque<>();
+    private long cycleStartedAt;
+    private boolean started;
+    private int nodesPerTick;
+
+    /**
+     * Reconcile the next share of the current cycle's nodes, starting a new cycle once the
+     * previous one is done and its interval has elapsed.
+     */
+    @Scheduled(fixedDelayString = "${nexusweaver.control-plane.reconciler.tick:1000}",
+            initialDelayString = "${nexusweaver.control-plane.reconciler.tick:1000}")
+    public void tick() {
+        if (pendingNodes.isEmpty()) {
+            long now = System.nanoTime();
+            if (started && now - cycleStartedAt < TimeUnit.MILLISECONDS.toNanos(config().getInterval())) {
+                return;
+            }
+            started = true;
+            cycleStartedAt = now;
+            startCycle();
+        }
+        for (int i = 0; i < nodesPerTick && !pendingNodes.isEmpty(); i++) {
+            String nodeId = pendingNodes.poll();
+            try {
+                reconcileNode(nodeId);
+            } catch (RuntimeException e) {
+                log.error("Failed to reconcile services on node {}", nodeId, e);
+            }
+        }
+    }
+
+    private void startCycle() {
+        List<String> nodes = serviceRepository.findNodeIdsWithProcesses(INACTIVE_DEPLOYMENTS, RECONCILED_STATUSES);
+        pendingNodes.addAll(nodes);
+        long ticks = Math.max(1, config().getInterval() / Math.max(1, config().getTick()));
+        nodesPerTick = (int) Math.max(1, (nodes.size() + ticks - 1) / ticks);
+        if (!nodes.isEmpty()) {
+            log.debug("Reconciling {} nodes, {} per tick", nodes.size(), nodesPerTick);
+        }
+    }
+
+    /**
+     * Compare the services recorded on one node with a single process listing of that node.
+     */
+    private void reconcileNode(String nodeId) {
+        // Read the recorded state before listing: a service recorded as RUNNING by now had its
+        // process started before the listing, so a missing process really is gone
+        List<ServiceProcessState> services =
+                serviceRepository.findProcessStatesByNodeId(nodeId, INACTIVE_DEPLOYMENTS, RECONCILED_STATUSES);
+        if (services.isEmpty()) {
+            return;
+        }
+        Map<String, KernelService.ProcessStatus> processes;
+        try {
+            processes = kernelService.listProcesses(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Skipping reconciliation of node {}: {}", nodeId, e.getMessage());
+            return;
+        }
+
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(
+                TimeUnit.MILLISECONDS.toNanos(config().getGracePeriod()));
+        Map<Transition, List<ServiceProcessState>> changes = new HashMap<>();
+        for (ServiceProcessState service : services) {
+            if (service.getUpdatedAt() != null && service.getUpdatedAt().isAfter(settledBefore)) {
+                continue;
+            }
+            ServiceStatus actual = toServiceStatus(processes.get(service.getProcessId()));
+            if (actual != null && actual != service.getStatus() && service.getStatus().canMoveTo(actual)) {
+                changes.computeIfAbsent(new Transition(service.getStatus(), actual), t -> new ArrayList<>())
+                        .add(service);
+            }
+        }
+
+        int batchSize = Math.max(1, config().getBatchSize());
+        changes.forEach((transition, changed) -> {
+            for (int from = 0; from < changed.size(); from += batchSize) {
+                apply(transition, changed.subList(from, Math.min(from + batchSize, changed.size())));
+            }
+            log.info("Reconciled {} services on node {} from {} to {}",
+                    changed.size(), nodeId, transition.from(), transition.to());
+        });
+    }
+
+    private void apply(Transition transition, List<ServiceProcessState> batch) {
+        List<UUID> ids = batch.stream().map(ServiceProcessState::getId).toList();
+        transactionTemplate.executeWithoutResult(tx -> {
+            int updated = serviceRepository.updateStatus(ids, transition.from(), transition.to(), LocalDateTime.now());
+            // Services changed by someone else since they were read keep their status and get no event
+            Collection<UUID> moved = updated == ids.size()
+                    ? ids : new HashSet<>(serviceRepository.findIdsByIdInAndStatus(ids, transition.to()));
+            for (ServiceProcessState service : batch) {
+                if (moved.contains(service.getId())) {
+                    eventPublisher.serviceStatusChanged(new ServiceStatusEvent(service.getDeploymentId(),
+                            service.getApplicationId(), service.getId(), service.getName(), transition.from(),
+                            transition.to(), service.getNodeId(), service.getProcessId()));
+                }
+            }
+        });
+    }
+
+    /**
+     * The service status implied by a process listing entry, or null to leave the service alone.
+     */
+    private static ServiceStatus toServiceStatus(KernelService.ProcessStatus process) {
+        if (process == null) {
+            return ServiceStatus.FAILED;
+        }
+        return switch (process) {
+            case RUNNING -> ServiceStatus.RUNNING;
+            case STOPPED -> ServiceStatus.STOPPED;
+            case FAILED, TERMINATED -> ServiceStatus.FAILED;
+            case INIT -> null;
+        };
+    }
+
+    private NexusWeaverProperties.Reconciler config() {
+        return properties.getReconciler();
+    }
+
+    private record Transition(ServiceStatus from, ServiceStatus to) {
+    }
+}
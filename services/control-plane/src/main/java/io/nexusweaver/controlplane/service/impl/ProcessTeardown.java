@@ -0,0 +1,105 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.DeploymentExecutorConfig;
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import io.nexusweaver.controlplane.repository.ServiceProcess;
+import io.nexusweaver.controlplane.scheduler.PlacementEngine;
+import io.nexusweaver.controlplane.service.KernelService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Stops the kernel processes of deployments that are being stopped or deleted.
+ *
+ * Processes are grouped by node. Each node gets at most {@code maxConnectionsPerNode} stop
+ * calls in flight, one per pooled connection, and all nodes are worked on at the same time.
+ * Callers run this outside any transaction, so no database connection is held while kernels answer.
+ * The deployment engine passes its {@link DeploymentDeadlines.Deadline}, which cancels the stop calls
+ * still outstanding when the deployment runs past its timeout.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessTeardown {
+
+    private final KernelService kernelService;
+    private final PlacementEngine placementEngine;
+    private final NexusWeaverProperties properties;
+    @Qualifier(DeploymentExecutorConfig.PROCESS_STOP_EXECUTOR)
+    private final Executor processStopExecutor;
+
+    /**
+     * Stop the given processes and give back the resources their services held.
+     * Blocks until every stop has been attempted; failures are logged, not thrown.
+     *
+     * @return the IDs of the services whose process could not be stopped
+     */
+    public Set<UUID> stopAll(Collection<ServiceProcess> processes) {
+        return stopAll(processes, DeploymentDeadlines.Deadline.NONE);
+    }
+
+    /**
+     * Stop the given processes within a deadline; stops cancelled by it count as failed.
+     *
+     * @return the IDs of the services whose process could not be stopped
+     */
+    public Set<UUID> stopAll(Collection<ServiceProcess> processes, DeploymentDeadlines.Deadline deadline) {
+        Map<String, List<ServiceProcess>> byNode = new LinkedHashMap<>();
+        for (ServiceProcess process : processes) {
+            if (process.nodeId() != null && process.processId() != null) {
+                byNode.computeIfAbsent(process.nodeId(), nodeId -> new ArrayList<>()).add(process);
+            }
+        }
+
+        int lanesPerNode = Math.max(1, properties.getKernel().getMaxConnectionsPerNode());
+        List<CompletableFuture<List<UUID>>> lanes = new ArrayList<>();
+        byNode.forEach((nodeId, onNode) -> {
+            int laneCount = Math.min(lanesPerNode, onNode.size());
+            for (int lane = 0; lane < laneCount; lane++) {
+                List<ServiceProcess> share = new ArrayList<>(onNode.size() / laneCount + 1);
+                for (int i = lane; i < onNode.size(); i += laneCount) {
+                    share.add(onNode.get(i));
+                }
+                lanes.add(CompletableFuture.supplyAsync(() -> stop(nodeId, share, deadline), processStopExecutor));
+            }
+        });
+
+        int total = byNode.values().stream().mapToInt(List::size).sum();
+        Set<UUID> failed = new HashSet<>();
+        lanes.forEach(lane -> failed.addAll(lane.join()));
+        log.info("Stopped {} processes on {} nodes, {} failed", total - failed.size(), byNode.size(), failed.size());
+        return failed;
+    }
+
+    private List<UUID> stop(String nodeId, List<ServiceProcess> processes, DeploymentDeadlines.Deadline deadline) {
+        List<UUID> failed = new ArrayList<>();
+        for (ServiceProcess process : processes) {
+            try {
+                deadline.run(() -> kernelService.stopProcess(nodeId, process.processId()));
+            } catch (Exception e) {
+                log.error("Failed to stop process {} on node {}", process.processId(), nodeId, e);
+                failed.add(process.serviceId());
+            }
+            placementEngine.release(process.serviceId());
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Orders the services of a deployment so that every service comes after the services it depends on.
+ */
+final class ServiceStartOrder {
+
+    private ServiceStartOrder() {
+    }
+
+    /**
+     * Sort services topologically by their declared dependencies.
+     *
+     * @param services the services of one deployment
+     * @param name extracts the service name
+     * @param dependencies extracts the names of the services it depends on
+     * @return the services, each placed after all of its dependencies
+     * @throws IllegalArgumentException if names repeat, a dependency is unknown, or dependencies form a cycle
+     */
+    static <T> List<T> sort(Collection<T> services, Function<T, String> name,
+                            Function<T, Collection<String>> dependencies) {
+        Map<String, T> byName = new LinkedHashMap<>();
+        for (T service : services) {
+            if (byName.put(name.apply(service), service) != null) {
+                throw new IllegalArgumentException("Duplicate service name: " + name.apply(service));
+            }
+        }
+
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (T service : services) {
+            String serviceName = name.apply(service);
+            Collection<String> deps = dependencies.apply(service);
+            for (String dependency : deps) {
+                if (!byName.containsKey(dependency)) {
+                    throw new IllegalArgumentException(
+                            "Service " + serviceName + " depends on unknown service " + dependency);
+                }
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(serviceName);
+            }
+            pending.put(serviceName, deps.size());
+        }
+
+        Deque<String> ready = new ArrayDeque<>();
+        pending.forEach((serviceName, count) -> {
+            if (count == 0) {
+                ready.add(serviceName);
+            }
+        });
+
+        List<T> ordered = new ArrayList<>(byName.size());
+        while (!ready.isEmpty()) {
+            String serviceName = ready.poll();
+            ordered.add(byName.get(serviceName));
+            for (String dependent : dependents.getOrDefault(serviceName, List.of())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (ordered.size() != byName.size()) {
+            throw new IllegalArgumentException("Service dependencies contain a cycle");
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Nexus Weaver Control Plane
+ * Copyright (c) 2024 Nexus Weaver Project
+ */
+
+package io.nexusweaver.controlplane.service.impl;
+
+import io.nexusweaver.controlplane.config.NexusWeaverProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs status transitions in their own transaction, retrying those that lost a concurrent update.
+ *
+ * Deployments and services are versioned, so Hibernate writes every change as
+ * {@code UPDATE ... WHERE id = ? AND lock_version = ?}; a row changed since it was read fails
+ * the update and the whole transaction rolls back, including any events it published. The
+ * callback is then run again on a fresh read, up to {@code maxTransitionAttempts} times, so it
+ * must decide from the state it reads, not from state captured before. A failed version check
+ * also invalidates the cached copy, so the retry reads the current row from the database.
+ *
+ * Callers must not be in a transaction already: a joined transaction cannot be retried.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransitionTemplate {
+
+    private final TransactionTemplate transactionTemplate;
+    private final NexusWeaverProperties properties;
+
+    public <T> T execute(TransactionCallback<T> action) {
+        int maxAttempts = Math.max(1, properties.getDeployment().getMaxTransitionAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Transition lost a concurrent update on attempt {}, retrying: {}", attempt, e.getMessage());
+            }
+        }
+    }
+
+    public void executeWithoutResult(Consumer<TransactionStatus> action) {
+        execute(tx -> {
+            action.accept(tx);
+            return null;
+        });
+    }
+}
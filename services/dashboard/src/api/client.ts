@@ -3,6 +3,8 @@ import { toast } from 'react-hot-toast'
 import { supabase } from '@/lib/supabase'
 
 const API_BASE_URL = import.meta.env.VITE_API_URL || 'http://localhost:8080/api/v1'
+// Largest page the control plane serves; fewer round trips when following cursors
+const PAGE_SIZE = 500
 
 class ApiClient {
     private client: AxiosInstance
@@ -17,19 +19,9 @@ class ApiClient {
 
         this.client.interceptors.request.use(
             async (config) => {
-                // Get current session
-                const { data: { session } } = await supabase.auth.getSession()
-                
-                if (session?.access_token) {
-                    // Add Supabase access token as Bearer token
-                    config.headers.Authorization = `Bearer ${session.access_token}`
-                } else {
-                    // Fallback to basic auth for backward compatibility
-                    const auth = localStorage.getItem('auth')
-                    if (auth) {
-                        const { username, password } = JSON.parse(auth)
-                        config.auth = { username, password }
-                    }
+                const authorization = await this.authorization()
+                if (authorization) {
+                    config.headers.Authorization = authorization
                 }
                 return config   
             },
@@ -58,6 +50,23 @@ class ApiClient {
         )
     }
 
+    private async authorization(): Promise<string | undefined> {
+        // Get current session
+        const { data: { session } } = await supabase.auth.getSession()
+
+        if (session?.access_token) {
+            // Add Supabase access token as Bearer token
+            return `Bearer ${session.access_token}`
+        }
+        // Fallback to basic auth for backward compatibility
+        const auth = localStorage.getItem('auth')
+        if (auth) {
+            const { username, password } = JSON.parse(auth)
+            return `Basic ${btoa(`${username}:${password}`)}`
+        }
+        return undefined
+    }
+
     async testAuth(username: string, password: string): Promise<boolean> {
         try {
             const response = await this.client.get('/deployments', {
@@ -69,13 +78,27 @@ class ApiClient {
         }
     }
 
+    /**
+     * GET a paged listing and follow X-Next-Cursor until the last page.
+     */
+    private async getAllPages<T>(path: string, params: URLSearchParams): Promise<T[]> {
+        params.set('limit', String(PAGE_SIZE))
+        const items: T[] = []
+        for (;;) {
+            const response = await this.client.get<T[]>(`${path}?${params}`)
+            items.push(...response.data)
+            const cursor = response.headers['x-next-cursor']
+            if (!cursor) return items
+            params.set('cursor', cursor)
+        }
+    }
+
     async getDeployments(applicationId?: string, status?: string) {
         const params = new URLSearchParams()
         if (applicationId) params.append('applicationId', applicationId)
         if (status) params.append('status', status)
 
-        const response = await this.client.get(`/deployments?${params}`)
-        return response.data
+        return this.getAllPages<Deployment>('/deployments', params)
     }
 
     async getDeployment(id: string) {
@@ -83,6 +106,49 @@ class ApiClient {
         return response.data
     }
 
+    /**
+     * Subscribe to the server-sent status events of a deployment. Uses fetch rather than
+     * EventSource so the request carries the same credentials as every other call.
+     * Returns a function that closes the subscription; onClose fires if the server ends it.
+     */
+    subscribeToDeployment(id: string, handlers: DeploymentEventHandlers): () => void {
+        const controller = new AbortController()
+
+        const run = async () => {
+            const authorization = await this.authorization()
+            const response = await fetch(`${API_BASE_URL}/deployments/${id}/events`, {
+                headers: {
+                    Accept: 'text/event-stream',
+                    ...(authorization ? { Authorization: authorization } : {}),
+                },
+                signal: controller.signal,
+            })
+            if (!response.ok || !response.body) {
+                throw new Error(`Event stream failed with status ${response.status}`)
+            }
+
+            const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+            let buffer = ''
+            for (;;) {
+                const { value, done } = await reader.read()
+                if (done) break
+                buffer += value
+                let boundary
+                while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                    dispatchDeploymentEvent(buffer.slice(0, boundary), handlers)
+                    buffer = buffer.slice(boundary + 2)
+                }
+            }
+        }
+
+        run()
+            .catch(() => undefined)
+            .finally(() => {
+                if (!controller.signal.aborted) handlers.onClose?.()
+            })
+        return () => controller.abort()
+    }
+
     async createDeployment(data: CreateDeploymentRequest) {
         const response = await this.client.post('/deployments', data)
         return response.data
@@ -103,8 +169,7 @@ class ApiClient {
     }
 
     async getApplications() {
-        const response = await this.client.get('/applications')
-        return response.data
+        return this.getAllPages<Application>('/applications', new URLSearchParams())
     }
 
     async getApplication(id: string) {
@@ -117,6 +182,30 @@ class ApiClient {
     }
 }
 
+function dispatchDeploymentEvent(raw: string, handlers: DeploymentEventHandlers) {
+    let event = 'message'
+    const data: string[] = []
+    for (const line of raw.split('\n')) {
+        if (line.startsWith('event:')) event = line.slice(6).trim()
+        else if (line.startsWith('data:')) data.push(line.slice(5).replace(/^ /, ''))
+    }
+    // Comment-only blocks are heartbeats
+    if (data.length === 0) return
+
+    const payload = JSON.parse(data.join('\n'))
+    switch (event) {
+        case 'snapshot':
+            handlers.onSnapshot?.(payload as Deployment)
+            break
+        case 'deployment':
+            handlers.onDeployment?.(payload as DeploymentStatusUpdate)
+            break
+        case 'service':
+            handlers.onService?.(payload as DeploymentStatusUpdate)
+            break
+    }
+}
+
 export const apiClient = new ApiClient()
 
 export interface CreateDeploymentRequest {
@@ -140,6 +229,18 @@ export interface ServiceDefinition {
     }
 }
 
+export interface Application {
+    id: string 
+    name: string 
+    description?: string 
+    deploymentCount: number 
+    activeDeployments: number
+    lastDeployedAt?: string 
+    createdAt: string 
+    updatedAt: string 
+    languages: string[] 
+}
+
 export interface Deployment {
     id: string
     applicationId: string 
@@ -151,6 +252,26 @@ export interface Deployment {
     updatedAt: string 
 }
 
+export interface DeploymentStatusUpdate {
+    deploymentId: string
+    applicationId: string
+    serviceId?: string
+    serviceName?: string
+    previousStatus?: string
+    status: string
+    deleted?: boolean
+    nodeId?: string
+    processId?: string
+    timestamp: string
+}
+
+export interface DeploymentEventHandlers {
+    onSnapshot?: (deployment: Deployment) => void
+    onDeployment?: (update: DeploymentStatusUpdate) => void
+    onService?: (update: DeploymentStatusUpdate) => void
+    onClose?: () => void
+}
+
 export interface Service {
     id: string 
     name: string 
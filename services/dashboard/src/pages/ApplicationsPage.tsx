@@ -12,22 +12,10 @@ import {
     GitBranch,
     Clock
 } from 'lucide-react'
-import { apiClient } from '@/api/client'
+import { apiClient, Application } from '@/api/client'
 import { cn } from '@/lib/utils'
 import { format } from 'date-fns'
 
-interface Application {
-    id: string 
-    name: string 
-    description?: string 
-    deploymentCount: number 
-    activeDeployments: number
-    lastDeployedAt?: string 
-    createdAt: string 
-    updatedAt: string 
-    languages: string[] 
-}
-
 export default function ApplicationsPage() {
     const [applications, setApplications] = useState<Application[]>([])
     const [loading, setLoading] = useState(true)
@@ -1,4 +1,4 @@
-import { useState } from "react";
+import { useEffect, useState } from "react";
 import { useParams, useNavigate, Link } from "react-router-dom";
 import { useQuery, useMutation, useQueryClient } from "@tanstack/react-query";
 import {
@@ -19,7 +19,7 @@ import {
     ExternalLink
 } from 'lucide-react'
 import { toast } from 'react-hot-toast'
-import { apiClient, DeploymentStatus, ServiceStatus } from '@/api/client'
+import { apiClient, Deployment, DeploymentStatus, ServiceStatus } from '@/api/client'
 import { cn } from "@/lib/utils";
 import { format } from 'date-fns'
 
@@ -28,13 +28,59 @@ export default function DeploymentDetailPage() {
     const navigate = useNavigate()
     const queryClient = useQueryClient()
     const [selectedService, setSelectedService] = useState<string | null>(null)
+    const [live, setLive] = useState(false)
 
     const { data: deployment, isLoading, error } = useQuery({
         queryKey: ['deployment', id],
         queryFn: () => apiClient.getDeployment(id!),
-        refetchInterval: 5000, // Refresh every 5 seconds
+        refetchInterval: live ? false : 5000, // Poll only while the event stream is down
     })
 
+    // Status changes are pushed by the server; reconnect whenever the stream drops
+    useEffect(() => {
+        if (!id) return
+        let unsubscribe = () => {}
+        let retry: ReturnType<typeof setTimeout> | undefined
+
+        const connect = () => {
+            unsubscribe = apiClient.subscribeToDeployment(id, {
+                onSnapshot: (snapshot) => {
+                    setLive(true)
+                    queryClient.setQueryData(['deployment', id], snapshot)
+                },
+                onDeployment: (update) => {
+                    if (update.deleted) {
+                        queryClient.invalidateQueries({ queryKey: ['deployment', id] })
+                        return
+                    }
+                    queryClient.setQueryData<Deployment>(['deployment', id], (old) =>
+                        old && { ...old, status: update.status as DeploymentStatus })
+                },
+                onService: (update) => {
+                    queryClient.setQueryData<Deployment>(['deployment', id], (old) => old && {
+                        ...old,
+                        services: old.services.map((service) => service.id === update.serviceId ? {
+                            ...service,
+                            status: update.status as ServiceStatus,
+                            nodeId: update.nodeId ?? service.nodeId,
+                            processId: update.processId ?? service.processId,
+                        } : service),
+                    })
+                },
+                onClose: () => {
+                    setLive(false)
+                    retry = setTimeout(connect, 5000)
+                },
+            })
+        }
+
+        connect()
+        return () => {
+            clearTimeout(retry)
+            unsubscribe()
+        }
+    }, [id, queryClient])
+
     const startMutation = useMutation({
         mutationFn: () => apiClient.startDeployment(id!),
         onSuccess: () => {
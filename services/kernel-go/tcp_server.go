@@ -20,8 +20,20 @@ const (
 	MSG_GET_PROCESS    = 3
 	MSG_LIST_PROCESSES = 4
 	MSG_HEALTH_CHECK   = 5
+
+	// MSG_START_PROCESS_BINARY carries length-prefixed fields instead of
+	// space-separated text, so names and commands may contain spaces and quotes.
+	MSG_START_PROCESS_BINARY = 6
+
+	// MSG_LIST_PROCESSES_BINARY answers with length-prefixed fields instead of
+	// space-separated lines, so process names may contain spaces.
+	MSG_LIST_PROCESSES_BINARY = 7
 )
 
+// connectionIdleTimeout closes connections that send no frame for this long.
+// Keep it above the Control Plane's kernel.idle-timeout so the client side evicts first.
+const connectionIdleTimeout = 120 * time.Second
+
 type TCPServer struct {
 	kernelService *KernelService
 	port          int
@@ -73,49 +85,65 @@ func (s *TCPServer) handleConnection(conn net.Conn) {
 	logger := logrus.WithField("client", conn.RemoteAddr())
 	logger.Info("TCP connection established")
 
-	// Set connection timeout
-	conn.SetReadDeadline(time.Now().Add(30 * time.Second))
-
-	// Read message header (8 bytes: 4 for type, 4 for length)
-	header := make([]byte, 8)
-	if _, err := io.ReadFull(conn, header); err != nil {
-		logger.WithError(err).Error("Failed to read message header")
-		return
-	}
+	// Serve frames until the client closes the connection or it sits idle.
+	// Control Plane pools connections, so one connection carries many requests.
+	for {
+		// Set connection timeout
+		conn.SetReadDeadline(time.Now().Add(connectionIdleTimeout))
+
+		// Read message header (8 bytes: 4 for type, 4 for length)
+		header := make([]byte, 8)
+		if _, err := io.ReadFull(conn, header); err != nil {
+			if err == io.EOF {
+				logger.Debug("TCP connection closed by client")
+			} else if netErr, ok := err.(net.Error); ok && netErr.Timeout() {
+				logger.Debug("Closing idle TCP connection")
+			} else {
+				logger.WithError(err).Error("Failed to read message header")
+			}
+			return
+		}
 
-	messageType := int32(binary.LittleEndian.Uint32(header[0:4]))
-	messageLength := int32(binary.LittleEndian.Uint32(header[4:8]))
+		messageType := int32(binary.LittleEndian.Uint32(header[0:4]))
+		messageLength := int32(binary.LittleEndian.Uint32(header[4:8]))
+
+		logger.WithFields(logrus.Fields{
+			"messageType":   messageType,
+			"messageLength": messageLength,
+		}).Info("Received TCP message")
+
+		// Read message data
+		var messageData []byte
+		if messageLength > 0 {
+			messageData = make([]byte, messageLength)
+			if _, err := io.ReadFull(conn, messageData); err != nil {
+				logger.WithError(err).Error("Failed to read message data")
+				return
+			}
+		}
 
-	logger.WithFields(logrus.Fields{
-		"messageType":   messageType,
-		"messageLength": messageLength,
-	}).Info("Received TCP message")
-
-	// Read message data
-	var messageData []byte
-	if messageLength > 0 {
-		messageData = make([]byte, messageLength)
-		if _, err := io.ReadFull(conn, messageData); err != nil {
-			logger.WithError(err).Error("Failed to read message data")
+		// Process message
+		response := s.processMessage(messageType, string(messageData), logger)
+		
+		// Send response
+		if err := s.sendResponse(conn, messageType, response, logger); err != nil {
 			return
 		}
 	}
-
-	// Process message
-	response := s.processMessage(messageType, string(messageData), logger)
-	
-	// Send response
-	s.sendResponse(conn, messageType, response, logger)
 }
 
 func (s *TCPServer) processMessage(messageType int32, data string, logger *logrus.Entry) string {
 	switch messageType {
 	case MSG_START_PROCESS:
 		return s.handleStartProcess(data, logger)
+	case MSG_START_PROCESS_BINARY:
+		return s.handleStartProcessBinary([]byte(data), logger)
 	case MSG_STOP_PROCESS:
 		return s.handleStopProcess(data, logger)
 	case MSG_LIST_PROCESSES:
 		return s.handleListProcesses(logger)
+	case MSG_LIST_PROCESSES_BINARY:
+		return s.handleListProcessesBinary(logger)
 	case MSG_HEALTH_CHECK:
 		return s.handleHealthCheck(logger)
 	default:
@@ -132,10 +160,37 @@ func (s *TCPServer) handleStartProcess(data string, logger *logrus.Entry) string
 		return "ERROR: Invalid message format"
 	}
 
-	processId := parts[0]
-	processName := parts[1] 
-	command := parts[2]
+	return s.startProcess(parts[0], parts[1], parts[2], 536870912, 1024, logger)
+}
+
+// handleStartProcessBinary decodes a MSG_START_PROCESS_BINARY payload: process ID,
+// process name and command as little-endian uint32 length-prefixed UTF-8 strings,
+// followed by the memory limit (int64) and CPU shares (int32).
+func (s *TCPServer) handleStartProcessBinary(data []byte, logger *logrus.Entry) string {
+	fields := make([]string, 3)
+	offset := 0
+	for i := range fields {
+		if len(data)-offset < 4 {
+			return "ERROR: Invalid message format"
+		}
+		length := int(binary.LittleEndian.Uint32(data[offset : offset+4]))
+		offset += 4
+		if len(data)-offset < length {
+			return "ERROR: Invalid message format"
+		}
+		fields[i] = string(data[offset : offset+length])
+		offset += length
+	}
+	if len(data)-offset < 12 {
+		return "ERROR: Invalid message format"
+	}
+	memoryLimit := int64(binary.LittleEndian.Uint64(data[offset : offset+8]))
+	cpuShares := int32(binary.LittleEndian.Uint32(data[offset+8 : offset+12]))
+
+	return s.startProcess(fields[0], fields[1], fields[2], memoryLimit, cpuShares, logger)
+}
 
+func (s *TCPServer) startProcess(processId, processName, command string, memoryLimit int64, cpuShares int32, logger *logrus.Entry) string {
 	logger.WithFields(logrus.Fields{
 		"processId":   processId,
 		"processName": processName,
@@ -149,8 +204,8 @@ func (s *TCPServer) handleStartProcess(data string, logger *logrus.Entry) string
 		Command:     command,
 		NodeId:      "localhost",
 		Port:        8000, // Default port
-		MemoryLimit: 536870912, // 512MB default
-		CpuShares:   1024,      // Default CPU shares
+		MemoryLimit: memoryLimit,
+		CpuShares:   cpuShares,
 		Environment: make(map[string]string),
 	}
 
@@ -211,6 +266,31 @@ func (s *TCPServer) handleListProcesses(logger *logrus.Entry) string {
 	return result.String()
 }
 
+// handleListProcessesBinary answers a MSG_LIST_PROCESSES_BINARY frame: the number of
+// processes as a little-endian uint32, then the process ID, name, status and language
+// of each as little-endian uint32 length-prefixed UTF-8 strings.
+func (s *TCPServer) handleListProcessesBinary(logger *logrus.Entry) string {
+	logger.Info("Listing processes via TCP")
+
+	req := &kernelv1.ListProcessesRequest{}
+	ctx := context.Background()
+	resp, err := s.kernelService.ListProcesses(ctx, req)
+	if err != nil {
+		logger.WithError(err).Error("Failed to list processes")
+		return fmt.Sprintf("ERROR: Failed to list processes: %v", err)
+	}
+
+	result := binary.LittleEndian.AppendUint32(nil, uint32(len(resp.Processes)))
+	for _, process := range resp.Processes {
+		for _, field := range []string{process.ProcessId, process.Name, process.Status, process.Language} {
+			result = binary.LittleEndian.AppendUint32(result, uint32(len(field)))
+			result = append(result, field...)
+		}
+	}
+
+	return string(result)
+}
+
 func (s *TCPServer) handleHealthCheck(logger *logrus.Entry) string {
 	logger.Info("Health check via TCP")
 
@@ -229,7 +309,7 @@ func (s *TCPServer) handleHealthCheck(logger *logrus.Entry) string {
 	}
 }
 
-func (s *TCPServer) sendResponse(conn net.Conn, messageType int32, response string, logger *logrus.Entry) {
+func (s *TCPServer) sendResponse(conn net.Conn, messageType int32, response string, logger *logrus.Entry) error {
 	responseData := []byte(response)
 	
 	// Create response header
@@ -240,14 +320,14 @@ func (s *TCPServer) sendResponse(conn net.Conn, messageType int32, response stri
 	// Send header
 	if _, err := conn.Write(header); err != nil {
 		logger.WithError(err).Error("Failed to send response header")
-		return
+		return err
 	}
 
 	// Send response data
 	if len(responseData) > 0 {
 		if _, err := conn.Write(responseData); err != nil {
 			logger.WithError(err).Error("Failed to send response data")
-			return
+			return err
 		}
 	}
 
@@ -255,4 +335,5 @@ func (s *TCPServer) sendResponse(conn net.Conn, messageType int32, response stri
 		"responseLength": len(responseData),
 		"response":       response,
 	}).Info("TCP response sent")
+	return nil
 }
\ No newline at end of file